@@ -0,0 +1,118 @@
+package games.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 比较两份 JMH 的 CSV 结果（-rf csv，最好带 -prof gc）：按基准名加参数对上号，
+// 打印每项的耗时比值和每次操作分配的字节数；耗时慢了超过阈值、或者分配变多，就算退步，退出码为 1，可以直接挂在 CI 上
+public class BaselineCompare {
+    private static final String ALLOCATION = ":gc.alloc.rate.norm"; // gc 分析器给出的每次操作分配字节数
+    private static final double DEFAULT_THRESHOLD = 0.10; // 默认允许慢 10%
+    private static final double ALLOCATION_SLACK = 8; // 每次操作多分配不超过这么多字节不算退步（测量噪声）
+
+    private BaselineCompare() {
+    }
+
+    // 读一份 CSV：键是"基准名 参数=值 ..."，值是分数
+    public static Map<String, Double> read(Path file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("Empty result file: " + file);
+        }
+        List<String> header = split(lines.get(0));
+        int name = header.indexOf("Benchmark");
+        int score = header.indexOf("Score");
+        if (name < 0 || score < 0) {
+            throw new IllegalArgumentException("Not a JMH CSV result file: " + file);
+        }
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            List<String> row = split(line);
+            StringBuilder key = new StringBuilder(row.get(name));
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i);
+                if (column.startsWith("Param: ") && i < row.size() && !row.get(i).isEmpty()) {
+                    key.append(' ').append(column.substring("Param: ".length())).append('=').append(row.get(i));
+                }
+            }
+            scores.put(key.toString(), Double.parseDouble(row.get(score)));
+        }
+        return scores;
+    }
+
+    // JMH 的 CSV 每个字段都加引号，字段里没有逗号
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        for (String field : line.split(",", -1)) {
+            if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+                field = field.substring(1, field.length() - 1);
+            }
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    // 打印比较结果，返回退步的项数
+    public static int compare(Map<String, Double> baseline, Map<String, Double> current, double threshold) {
+        int regressions = 0;
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            String key = entry.getKey();
+            Double before = baseline.get(key);
+            double after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-90s %14s -> %12.3f  new%n", key, "", after);
+                continue;
+            }
+            boolean allocation = key.contains(ALLOCATION);
+            boolean regressed;
+            if (allocation) {
+                regressed = after > before * (1 + threshold) + ALLOCATION_SLACK;
+            } else if (key.contains(":")) {
+                continue; // gc 分析器的其他次要指标（分配速率、GC 次数）随耗时变化，不单独比较
+            } else {
+                regressed = after > before * (1 + threshold);
+            }
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f -> %12.3f  %6.2fx%s%n", key, before, after,
+                    before == 0 ? Double.NaN : after / before, regressed ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key) && (!key.contains(":") || key.contains(ALLOCATION))) {
+                System.out.printf("%-90s missing from current results%n", key);
+            }
+        }
+        return regressions;
+    }
+
+    public static void main(String[] args) {
+        // 参数：基线文件 当前结果文件 [允许变慢的比例，默认 0.10]
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCompare <baseline.csv> <results.csv> [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        int regressions = compare(read(Paths.get(args[0])), read(Paths.get(args[1])), threshold);
+        System.out.printf("%d regression(s) beyond %.0f%%%n", regressions, threshold * 100);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+}
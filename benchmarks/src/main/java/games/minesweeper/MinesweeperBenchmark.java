@@ -0,0 +1,87 @@
+package games.minesweeper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 扫雷引擎的热点：布雷（连带相邻地雷数的预计算）、从中间点开的连锁揭示、逐格读相邻地雷数。
+// 地雷密度 5%，从中间点开时连锁揭示会翻开九成以上的格子（密度 10% 时只有不到 1%，测不出扩散的开销）
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinesweeperBenchmark {
+    private static final double DENSITY = 0.05;
+
+    @Param({"64", "512"})
+    int size; // 棋盘边长
+
+    private MinesweeperEngine engine;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void createBoard() {
+        engine = new MinesweeperEngine(size, size, (int) (size * size * DENSITY));
+        engine.placeMines(42L, size / 2, size / 2);
+    }
+
+    // 连锁揭示会改棋盘，每次调用前重新布雷（不计时）；单独一个状态，免得别的基准也跟着每次重置
+    @State(Scope.Thread)
+    public static class Cascade {
+        MinesweeperEngine engine;
+        final MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        int center;
+
+        @Setup(Level.Trial)
+        public void createBoard(MinesweeperBenchmark benchmark) {
+            int size = benchmark.size;
+            engine = new MinesweeperEngine(size, size, (int) (size * size * DENSITY));
+            center = size / 2;
+            // 先揭一次，让连锁揭示的队列和 delta 扩到够大，测的是稳定状态
+            engine.placeMines(42L, center, center);
+            engine.revealCascade(center, center, delta);
+        }
+
+        // 棋盘足够大，单次揭示远长于按次重置带来的计时误差
+        @Setup(Level.Invocation)
+        public void resetBoard() {
+            engine.placeMines(42L, center, center);
+        }
+    }
+
+    @Benchmark
+    public int revealCascade(Cascade cascade) {
+        return cascade.engine.revealCascade(cascade.center, cascade.center, cascade.delta);
+    }
+
+    // 换种子布雷：抽样放雷，再算出每个格子的相邻地雷数
+    @Benchmark
+    public boolean placeMines() {
+        engine.placeMines(++seed, size / 2, size / 2);
+        return engine.areMinesPlaced();
+    }
+
+    @Benchmark
+    public int adjacentMines() {
+        int sum = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                sum += engine.adjacentMines(row, col);
+            }
+        }
+        return sum;
+    }
+}
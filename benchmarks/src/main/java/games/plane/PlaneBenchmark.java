@@ -0,0 +1,123 @@
+package games.plane;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// 飞机大战的热点：子弹对敌机的碰撞（跑的就是 PlaneSimulation 真正的碰撞阶段，子弹多时走并行路径，
+// 每次调用后撤销删除，所以输入相同），实体仓库的生成和回收，以及一次爆炸的粒子生成
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaneBenchmark {
+    private static final int EXPLOSION_PARTICLES = 16;
+
+    private final PlaneParticles particles = new PlaneParticles(PlaneSimulation.MAX_PARTICLES);
+
+    // 随机撒在画面里的敌机和子弹，放进一个压力模式（玩家不会死）的模拟里
+    @State(Scope.Thread)
+    public static class Crowd {
+        @Param({"1000", "10000"})
+        int enemyCount;
+
+        @Param({"100", "10000"})
+        int bulletCount;
+
+        @Param({"0", "4"})
+        int threads; // 0 表示单线程；子弹数超过并行阈值时才会真的拆分
+
+        PlaneSimulation simulation;
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void spawn() {
+            Random random = new Random(42);
+            simulation = new PlaneSimulation(42L, Math.max(enemyCount, bulletCount));
+            simulation.setStressLevel(0);
+            if (threads > 0) {
+                pool = new ForkJoinPool(threads);
+                simulation.setPool(pool);
+            }
+            PlaneEntities enemies = simulation.getEnemies();
+            for (int i = 0; i < enemyCount; i++) {
+                enemies.spawn(PlaneSimulation.ENEMY, random.nextDouble() * (PlaneSimulation.WIDTH - PlaneSimulation.ENEMY_SIZE),
+                        random.nextDouble() * (PlaneSimulation.HEIGHT - PlaneSimulation.ENEMY_SIZE),
+                        PlaneSimulation.ENEMY_SIZE, PlaneSimulation.ENEMY_SIZE, 0, PlaneSimulation.ENEMY_SPEED);
+            }
+            PlaneEntities bullets = simulation.getBullets();
+            for (int i = 0; i < bulletCount; i++) {
+                bullets.spawn(PlaneSimulation.BULLET, random.nextDouble() * PlaneSimulation.WIDTH,
+                        random.nextDouble() * PlaneSimulation.HEIGHT, PlaneSimulation.BULLET_SIZE * 2,
+                        PlaneSimulation.BULLET_SIZE * 2, 0, -PlaneSimulation.BULLET_SPEED);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Churn {
+        @Param({"1000", "10000"})
+        int spawnCount;
+
+        PlaneEntities entities;
+
+        @Setup(Level.Trial)
+        public void create() {
+            entities = new PlaneEntities(spawnCount);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void seedParticles() {
+        particles.seed(42L);
+    }
+
+    @Benchmark
+    public int collisions(Crowd crowd) {
+        return crowd.simulation.collideAndUndo();
+    }
+
+    // 一批子弹生成、移动一步、全部删除再回收，稳定状态下应该不分配内存
+    @Benchmark
+    public int spawnAndRecycle(Churn churn) {
+        PlaneEntities entities = churn.entities;
+        for (int i = 0; i < churn.spawnCount; i++) {
+            entities.spawn(PlaneSimulation.BULLET, i % PlaneSimulation.WIDTH, PlaneSimulation.HEIGHT,
+                    PlaneSimulation.BULLET_SIZE * 2, PlaneSimulation.BULLET_SIZE * 2, 0, -PlaneSimulation.BULLET_SPEED);
+        }
+        entities.integrate();
+        for (int i = 0; i < entities.limit(); i++) {
+            entities.remove(i);
+        }
+        return entities.commitRemovals();
+    }
+
+    @Benchmark
+    public int explosion() {
+        particles.explode(PlaneSimulation.WIDTH / 2.0, PlaneSimulation.HEIGHT / 2.0, EXPLOSION_PARTICLES);
+        return particles.window();
+    }
+}
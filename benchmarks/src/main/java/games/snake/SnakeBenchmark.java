@@ -0,0 +1,92 @@
+package games.snake;
+
+import games.core.SplitMix64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 贪吃蛇的热点：一步的移动加碰撞检测（不同蛇长），以及开局时苹果、道具、障碍物的生成。
+// 先让自动驾驶把蛇养到目标长度、存快照，再录下之后 STEPS 步的转向；
+// 每次调用从快照恢复再重放这些步，恢复的开销摊到 STEPS 步上
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeBenchmark {
+    private static final int SIZE = 40; // 棋盘边长
+    private static final int STEPS = 1024; // 每次调用重放的步数
+    private static final int MAX_GAMES = 1000; // 找不到能养到目标长度的对局就放弃
+
+    private final SnakeSimulation fresh = new SnakeSimulation(SIZE, SIZE, 42L);
+    private long seed;
+
+    // 养到目标长度的一局：快照和之后 STEPS 步的转向
+    @State(Scope.Thread)
+    public static class Grown {
+        @Param({"8", "128", "512"})
+        int length; // 蛇长
+
+        SnakeSimulation simulation;
+        SnakeSimulation.Snapshot snapshot;
+        final char[] turns = new char[STEPS];
+
+        @Setup(Level.Trial)
+        public void grow() {
+            SnakeAutopilot autopilot = new SnakeAutopilot(SIZE, SIZE);
+            for (int game = 0; game < MAX_GAMES; game++) {
+                simulation = new SnakeSimulation(SIZE, SIZE, SplitMix64.gameSeed(42L, game));
+                while (!simulation.isOver() && simulation.getSnake().length() < length) {
+                    simulation.step(autopilot.decide(simulation));
+                }
+                if (simulation.isOver()) {
+                    continue;
+                }
+                snapshot = simulation.snapshot();
+                int recorded = 0;
+                while (recorded < STEPS && !simulation.isOver()) {
+                    char turn = autopilot.decide(simulation);
+                    turns[recorded++] = turn;
+                    simulation.step(turn);
+                }
+                if (recorded == STEPS) {
+                    simulation.restore(snapshot);
+                    return;
+                }
+            }
+            throw new IllegalStateException("No game reached length " + length + " with " + STEPS + " steps to spare");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public boolean step(Grown grown) {
+        SnakeSimulation simulation = grown.simulation;
+        simulation.restore(grown.snapshot);
+        boolean alive = true;
+        for (int i = 0; i < STEPS; i++) {
+            alive &= simulation.step(grown.turns[i]);
+        }
+        return alive;
+    }
+
+    // 开一局新的：蛇身复位，生成苹果、道具和障碍物
+    @Benchmark
+    public int reset() {
+        fresh.reset(++seed);
+        return fresh.getAppleCell();
+    }
+}
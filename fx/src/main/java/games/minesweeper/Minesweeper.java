@@ -0,0 +1,300 @@
+package games.minesweeper;
+
+import javafx.application.Application;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.GridPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class Minesweeper extends Application {
+    private static final int SIZE = 10; // 扫雷网格大小
+    private static final int MINES = 15; // 地雷数量
+    private static final int BUTTON_LIMIT = 40 * 40; // 超过这个格子数就改用 Canvas 渲染
+    private static final long HINT_BUDGET_NANOS = 100_000_000L; // 求提示的时间预算
+
+    private int rows; // 行数
+    private int cols; // 列数
+    private Button[][] buttons; // 扫雷按钮（按钮模式）
+    private MinesweeperCanvas canvasView; // 单 Canvas 渲染（大棋盘模式）
+    private MinesweeperBoard board; // 当前棋盘（固定大小或无限）
+    private MinesweeperEngine engine; // 固定大小棋盘的游戏状态（地雷、揭示、标记）
+    private InfiniteMinesweeper world; // 无限模式的世界
+    private MinesweeperSave save; // 固定大小棋盘的存档，每步之后自动保存改动的部分
+    private final MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta(); // 每次揭示改变的格子
+    private final MinesweeperSolver solver = new MinesweeperSolver(); // 提示和自动游戏
+    private Button hintButton; // 按钮模式下高亮的提示格子
+
+    public void start(Stage primaryStage) {
+        // 参数：[行数 列数 地雷数] [--canvas] [--save 存档文件]，或者 --infinite [密度] [存档目录]
+        List<String> args = new ArrayList<>(getParameters().getRaw());
+        boolean useCanvas = args.remove("--canvas");
+        Path saveFile = null;
+        int saveIndex = args.indexOf("--save");
+        if (saveIndex >= 0 && saveIndex + 1 < args.size()) {
+            saveFile = Paths.get(args.remove(saveIndex + 1));
+            args.remove(saveIndex);
+        }
+        if (args.remove("--infinite")) {
+            // 不给密度时沿用存档里的（新世界用默认密度）；给了但和存档不一样时 open 会报错
+            Path directory = Paths.get(args.size() >= 2 ? args.get(1) : "minesweeper-world");
+            long seed = new Random().nextLong();
+            world = args.size() >= 1 ? InfiniteMinesweeper.open(directory, seed, Double.parseDouble(args.get(0)))
+                    : InfiniteMinesweeper.open(directory, seed);
+            if (world.isExploded() && confirm("This world ended on a mine. Start a new world in " + directory + "?")) {
+                world.reset(seed);
+            }
+            board = world;
+            useCanvas = true;
+            primaryStage.setOnCloseRequest(e -> world.flush());
+        } else {
+            // 有存档就接着玩，尺寸以存档为准
+            if (saveFile != null) {
+                try {
+                    save = MinesweeperSave.resume(saveFile);
+                } catch (UncheckedIOException e) {
+                    // 存档没写完或者已损坏，接不上了：开新局覆盖它
+                    System.err.println(e.getCause().getMessage() + ", starting a new game");
+                }
+            }
+            if (save != null) {
+                engine = save.getEngine();
+            } else {
+                int r = args.size() >= 3 ? Integer.parseInt(args.get(0)) : SIZE;
+                int c = args.size() >= 3 ? Integer.parseInt(args.get(1)) : SIZE;
+                int mines = args.size() >= 3 ? Integer.parseInt(args.get(2)) : MINES;
+                engine = new MinesweeperEngine(r, c, mines);
+                save = saveFile != null ? MinesweeperSave.create(saveFile, engine) : null;
+            }
+            rows = engine.getRows();
+            cols = engine.getCols();
+            board = engine;
+            if (save != null) {
+                primaryStage.setOnCloseRequest(e -> save.close());
+            }
+        }
+
+        // 创建场景并设置舞台
+        Scene scene;
+        if (useCanvas || (long) rows * cols > BUTTON_LIMIT) {
+            canvasView = new MinesweeperCanvas(board);
+            canvasView.setPrefSize(world != null ? 1200 : Math.min(cols * 24, 1200), world != null ? 800 : Math.min(rows * 24, 800));
+            canvasView.setOnCellClicked((row, col, button) -> handleButtonClick(row, col, button.toString()));
+            scene = new Scene(canvasView);
+            primaryStage.setResizable(true);
+        } else {
+            scene = new Scene(createButtonGrid());
+            primaryStage.setResizable(false);
+        }
+        // H 显示提示和概率，A 按提示走一步
+        scene.addEventHandler(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getCode() == KeyCode.H) {
+                showHint();
+            } else if (e.getCode() == KeyCode.A) {
+                autoStep();
+            }
+        });
+        primaryStage.setTitle("Minesweeper");
+        primaryStage.setScene(scene);
+        primaryStage.show();
+        if (canvasView != null) {
+            canvasView.requestFocus();
+        }
+        if (world != null) {
+            canvasView.centerOn(0, 0);
+        }
+    }
+
+    private GridPane createButtonGrid() {
+        buttons = new Button[rows][cols];
+
+        // 创建网格布局
+        GridPane gridPane = new GridPane();
+        gridPane.setAlignment(Pos.CENTER);
+        gridPane.setHgap(2);
+        gridPane.setVgap(2);
+
+        // 初始化按钮和事件处理
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                final int r = row;
+                final int c = col;
+                Button button = new Button();
+                button.setPrefSize(40, 40);
+                button.setFont(Font.font("Arial", 18));
+                button.setOnMouseClicked(e -> handleButtonClick(r, c, e.getButton().toString()));
+                buttons[row][col] = button;
+                gridPane.add(button, col, row);
+                updateButton(row, col); // 读档时恢复已揭示和已标记的格子
+            }
+        }
+        return gridPane;
+    }
+
+    private void placeMines(int safeRow, int safeCol) {
+        engine.placeMines(new Random().nextLong(), safeRow, safeCol);
+    }
+
+    private void handleButtonClick(int row, int col, String mouseButton) {
+        clearHint();
+        if (board.isGameOver() || board.isRevealed(row, col)) {
+            return; // 忽略已揭示的格子
+        }
+
+        if (mouseButton.equals("PRIMARY")) {
+            if (board.isFlagged(row, col)) {
+                return; // 忽略已标记的格子
+            }
+
+            // 布置地雷，避开第一下点的位置
+            if (engine != null && !engine.areMinesPlaced()) {
+                placeMines(row, col);
+            }
+            revealCell(row, col);
+            if (board.isExploded()) {
+                revealAll();
+                showGameOverAlert(world != null
+                        ? "Game over! You stepped on a mine after revealing " + world.getRevealedCount() + " cells."
+                        : "Game over! You stepped on a mine.");
+            } else if (board.isWon()) {
+                revealAll();
+                showGameOverAlert("Congratulations! You win!");
+            }
+        } else if (mouseButton.equals("SECONDARY")) {
+            board.toggleFlag(row, col);
+            if (canvasView != null) {
+                canvasView.redrawCell(row, col);
+            } else {
+                updateButton(row, col);
+            }
+        }
+        autosave();
+    }
+
+    private void autosave() {
+        // 只把这一步改动过的页拷进映射文件，真正写盘由操作系统完成
+        if (save != null) {
+            save.flushDirty();
+        }
+    }
+
+    private void showHint() {
+        if (engine == null) {
+            return; // 无限模式没有提示
+        }
+        MinesweeperSolver.Result result = solver.solve(engine, HINT_BUDGET_NANOS);
+        if (!result.hasHint()) {
+            return;
+        }
+        if (canvasView != null) {
+            canvasView.setOverlay(result);
+        } else {
+            clearHint();
+            hintButton = buttons[result.getHintRow()][result.getHintCol()];
+            hintButton.setStyle(result.isHintSafe() ? "-fx-border-color: green; -fx-border-width: 3"
+                    : "-fx-border-color: orange; -fx-border-width: 3");
+        }
+    }
+
+    private void autoStep() {
+        if (engine == null) {
+            return;
+        }
+        MinesweeperSolver.Result result = solver.solve(engine, HINT_BUDGET_NANOS);
+        if (result.hasHint()) {
+            handleButtonClick(result.getHintRow(), result.getHintCol(), "PRIMARY");
+        }
+    }
+
+    private void clearHint() {
+        if (canvasView != null) {
+            canvasView.setOverlay(null);
+        } else if (hintButton != null) {
+            hintButton.setStyle("");
+            hintButton = null;
+        }
+    }
+
+    private void revealCell(int row, int col) {
+        board.revealCascade(row, col, delta);
+        if (canvasView != null) {
+            canvasView.redraw(delta);
+            return;
+        }
+        for (int i = 0; i < delta.size(); i++) {
+            updateButton(delta.row(i), delta.col(i));
+        }
+    }
+
+    private int countAdjacentMines(int row, int col) {
+        return engine.adjacentMines(row, col);
+    }
+
+    private void updateButton(int row, int col) {
+        // 根据引擎状态刷新按钮显示
+        Button button = buttons[row][col];
+        if (engine.isRevealed(row, col)) {
+            if (engine.isMine(row, col)) {
+                button.setText("X");
+                button.setTextFill(Color.RED);
+            } else {
+                int mines = countAdjacentMines(row, col);
+                button.setText(mines > 0 ? Integer.toString(mines) : "");
+                button.setTextFill(Color.BLACK);
+            }
+        } else if (engine.isFlagged(row, col)) {
+            button.setText("F");
+            button.setTextFill(Color.GREEN);
+        } else {
+            button.setText("");
+        }
+    }
+
+    private void revealAll() {
+        if (world != null) {
+            world.flush(); // 无限模式不揭示全图，只保存进度
+            return;
+        }
+        engine.revealAllCells();
+        if (canvasView != null) {
+            canvasView.redrawAll();
+            return;
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                updateButton(row, col);
+            }
+        }
+    }
+
+    private static boolean confirm(String message) {
+        javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Minesweeper");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        return alert.showAndWait().filter(javafx.scene.control.ButtonType.OK::equals).isPresent();
+    }
+
+    private void showGameOverAlert(String message) {
+        javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.INFORMATION);
+        alert.setTitle("Game Over");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,329 @@
+package games.minesweeper;
+
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+// 单个 Canvas 的扫雷渲染器：只画可见区域，格子图块预先缓存，支持滚动和缩放
+public class MinesweeperCanvas extends Pane {
+    private static final double MIN_CELL_SIZE = 4; // 最小格子像素
+    private static final double MAX_CELL_SIZE = 64; // 最大格子像素
+    private static final double PAN_STEP = 40; // 方向键平移像素
+
+    // 图块下标：0-8 是已揭示的数字格子
+    private static final int TILE_HIDDEN = 9;
+    private static final int TILE_FLAG = 10;
+    private static final int TILE_MINE = 11;
+    private static final int TILE_COUNT = 12;
+
+    private static final Color[] NUMBER_COLORS = {
+            Color.TRANSPARENT, Color.BLUE, Color.GREEN, Color.RED, Color.DARKBLUE,
+            Color.BROWN, Color.DARKCYAN, Color.BLACK, Color.GRAY
+    };
+
+    private static final Color[] OVERLAY_COLORS = new Color[11]; // 地雷概率 0%,10%...100% 对应的半透明颜色
+
+    static {
+        for (int i = 0; i < OVERLAY_COLORS.length; i++) {
+            double p = i / 10.0;
+            OVERLAY_COLORS[i] = i == 0 ? Color.rgb(0, 200, 0, 0.45) : Color.rgb(220, 0, 0, 0.15 + p * 0.5);
+        }
+    }
+
+    public interface CellClickHandler {
+        void onCellClicked(int row, int col, MouseButton button);
+    }
+
+    private final Canvas canvas = new Canvas();
+    private final Image[] tiles = new Image[TILE_COUNT];
+    private MinesweeperBoard board;
+    private CellClickHandler clickHandler;
+    private MinesweeperSolver.Result overlay; // 求解器给出的概率叠加层
+
+    private double cellSize = 24; // 当前缩放下的格子大小
+    private double offsetX; // 视口左上角在整个棋盘中的像素位置
+    private double offsetY;
+    private double dragX; // 中键拖动的起点
+    private double dragY;
+
+    public MinesweeperCanvas(MinesweeperBoard board) {
+        this.board = board;
+        getChildren().add(canvas);
+        setFocusTraversable(true);
+        buildTiles();
+
+        canvas.setOnMousePressed(e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+            requestFocus();
+        });
+        canvas.setOnMouseDragged(e -> {
+            if (e.getButton() == MouseButton.MIDDLE) {
+                panBy(dragX - e.getX(), dragY - e.getY());
+                dragX = e.getX();
+                dragY = e.getY();
+            }
+        });
+        canvas.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.MIDDLE || !e.isStillSincePress() || clickHandler == null) {
+                return;
+            }
+            int row = rowAt(e.getY());
+            int col = colAt(e.getX());
+            if (board.inBounds(row, col)) {
+                clickHandler.onCellClicked(row, col, e.getButton());
+            }
+        });
+        canvas.setOnScroll(e -> {
+            if (e.isControlDown()) {
+                zoomAt(e.getX(), e.getY(), e.getDeltaY() > 0 ? 1.25 : 0.8);
+            } else {
+                panBy(-e.getDeltaX(), -e.getDeltaY());
+            }
+        });
+        setOnKeyPressed(e -> {
+            KeyCode code = e.getCode();
+            if (code == KeyCode.LEFT) {
+                panBy(-PAN_STEP, 0);
+            } else if (code == KeyCode.RIGHT) {
+                panBy(PAN_STEP, 0);
+            } else if (code == KeyCode.UP) {
+                panBy(0, -PAN_STEP);
+            } else if (code == KeyCode.DOWN) {
+                panBy(0, PAN_STEP);
+            } else if (code == KeyCode.PLUS || code == KeyCode.EQUALS || code == KeyCode.ADD) {
+                zoomAt(canvas.getWidth() / 2, canvas.getHeight() / 2, 1.25);
+            } else if (code == KeyCode.MINUS || code == KeyCode.SUBTRACT) {
+                zoomAt(canvas.getWidth() / 2, canvas.getHeight() / 2, 0.8);
+            }
+        });
+    }
+
+    public void setBoard(MinesweeperBoard board) {
+        this.board = board;
+        offsetX = 0;
+        offsetY = 0;
+        redrawAll();
+    }
+
+    public void setOnCellClicked(CellClickHandler handler) {
+        this.clickHandler = handler;
+    }
+
+    public void setOverlay(MinesweeperSolver.Result overlay) {
+        MinesweeperSolver.Result previous = this.overlay;
+        this.overlay = overlay;
+        if (previous != null || overlay != null) {
+            redrawAll();
+        }
+    }
+
+    public int rowAt(double y) {
+        return (int) Math.floor((y + offsetY) / cellSize);
+    }
+
+    public int colAt(double x) {
+        return (int) Math.floor((x + offsetX) / cellSize);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth();
+        double height = getHeight();
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            clampOffset();
+            redrawAll();
+        }
+    }
+
+    public void panBy(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+        clampOffset();
+        redrawAll();
+    }
+
+    public void centerOn(int row, int col) {
+        offsetX = (col + 0.5) * cellSize - canvas.getWidth() / 2;
+        offsetY = (row + 0.5) * cellSize - canvas.getHeight() / 2;
+        clampOffset();
+        redrawAll();
+    }
+
+    public void zoomAt(double x, double y, double factor) {
+        // 以鼠标位置为中心缩放，保持鼠标下的格子不动
+        double newSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, Math.round(cellSize * factor)));
+        if (newSize == cellSize) {
+            return;
+        }
+        double worldX = (x + offsetX) / cellSize;
+        double worldY = (y + offsetY) / cellSize;
+        cellSize = newSize;
+        offsetX = worldX * cellSize - x;
+        offsetY = worldY * cellSize - y;
+        clampOffset();
+        buildTiles();
+        redrawAll();
+    }
+
+    private void clampOffset() {
+        if (board.isUnbounded()) {
+            return; // 无限棋盘可以任意滚动
+        }
+        double maxX = Math.max(0, board.getCols() * cellSize - canvas.getWidth());
+        double maxY = Math.max(0, board.getRows() * cellSize - canvas.getHeight());
+        offsetX = Math.max(0, Math.min(offsetX, maxX));
+        offsetY = Math.max(0, Math.min(offsetY, maxY));
+    }
+
+    private int firstVisibleRow() {
+        return board.isUnbounded() ? rowAt(0) : Math.max(0, rowAt(0));
+    }
+
+    private int lastVisibleRow() {
+        return board.isUnbounded() ? rowAt(canvas.getHeight()) : Math.min(board.getRows() - 1, rowAt(canvas.getHeight()));
+    }
+
+    private int firstVisibleCol() {
+        return board.isUnbounded() ? colAt(0) : Math.max(0, colAt(0));
+    }
+
+    private int lastVisibleCol() {
+        return board.isUnbounded() ? colAt(canvas.getWidth()) : Math.min(board.getCols() - 1, colAt(canvas.getWidth()));
+    }
+
+    public void redrawAll() {
+        // 只遍历视口内的格子，开销与棋盘大小无关
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFill(Color.DIMGRAY);
+        g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        int firstRow = firstVisibleRow();
+        int lastRow = lastVisibleRow();
+        int firstCol = firstVisibleCol();
+        int lastCol = lastVisibleCol();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                drawCell(g, row, col);
+            }
+        }
+        if (overlay != null) {
+            drawOverlay(g, firstRow, lastRow, firstCol, lastCol);
+        }
+    }
+
+    private void drawOverlay(GraphicsContext g, int firstRow, int lastRow, int firstCol, int lastCol) {
+        // 边界格子按概率着色，提示格子画黄框。结果按格子编号排好序，
+        // 每个可见行二分找到视口里的那一段，开销只和视口大小有关，不随整条边界变长
+        int cols = board.getCols();
+        for (int row = firstRow; row <= lastRow; row++) {
+            int rowStart = row * cols;
+            for (int i = overlay.indexAtOrAfter(rowStart + firstCol); i < overlay.size(); i++) {
+                int col = overlay.cell(i) - rowStart;
+                if (col > lastCol) {
+                    break;
+                }
+                if (board.isRevealed(row, col) || board.isFlagged(row, col)) {
+                    continue;
+                }
+                g.setFill(OVERLAY_COLORS[Math.round(overlay.probability(i) * 10)]);
+                g.fillRect(col * cellSize - offsetX, row * cellSize - offsetY, cellSize, cellSize);
+            }
+        }
+        if (overlay.hasHint()) {
+            g.setStroke(Color.YELLOW);
+            g.setLineWidth(2);
+            g.strokeRect(overlay.getHintCol() * cellSize - offsetX + 1, overlay.getHintRow() * cellSize - offsetY + 1,
+                    cellSize - 2, cellSize - 2);
+            g.setLineWidth(1);
+        }
+    }
+
+    public void redraw(MinesweeperEngine.Delta delta) {
+        // 只重画引擎报告的脏格子；与视口不相交时直接跳过
+        if (delta.isEmpty()) {
+            return;
+        }
+        int firstRow = firstVisibleRow();
+        int lastRow = lastVisibleRow();
+        int firstCol = firstVisibleCol();
+        int lastCol = lastVisibleCol();
+        if (delta.getMaxRow() < firstRow || delta.getMinRow() > lastRow
+                || delta.getMaxCol() < firstCol || delta.getMinCol() > lastCol) {
+            return;
+        }
+        long visibleCells = (long) (lastRow - firstRow + 1) * (lastCol - firstCol + 1);
+        if (delta.size() >= visibleCells) {
+            redrawAll();
+            return;
+        }
+
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        for (int i = 0; i < delta.size(); i++) {
+            int row = delta.row(i);
+            int col = delta.col(i);
+            if (row >= firstRow && row <= lastRow && col >= firstCol && col <= lastCol) {
+                drawCell(g, row, col);
+            }
+        }
+    }
+
+    public void redrawCell(int row, int col) {
+        drawCell(canvas.getGraphicsContext2D(), row, col);
+    }
+
+    private void drawCell(GraphicsContext g, int row, int col) {
+        int tile;
+        if (board.isRevealed(row, col)) {
+            tile = board.isMine(row, col) ? TILE_MINE : board.adjacentMines(row, col);
+        } else {
+            tile = board.isFlagged(row, col) ? TILE_FLAG : TILE_HIDDEN;
+        }
+        g.drawImage(tiles[tile], col * cellSize - offsetX, row * cellSize - offsetY);
+    }
+
+    private void buildTiles() {
+        // 每个缩放级别只生成一次图块，之后画格子就是一次 drawImage
+        int size = (int) cellSize;
+        Canvas scratch = new Canvas(size, size);
+        GraphicsContext g = scratch.getGraphicsContext2D();
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        g.setFont(Font.font("Arial", FontWeight.BOLD, size * 0.7));
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+
+        for (int tile = 0; tile < TILE_COUNT; tile++) {
+            g.clearRect(0, 0, size, size);
+            boolean hidden = tile == TILE_HIDDEN || tile == TILE_FLAG;
+            g.setFill(hidden ? Color.SILVER : Color.GAINSBORO);
+            g.fillRect(0, 0, size, size);
+            g.setStroke(Color.GRAY);
+            g.strokeRect(0.5, 0.5, size - 1, size - 1);
+
+            if (tile == TILE_FLAG) {
+                g.setFill(Color.GREEN);
+                g.fillText("F", size / 2.0, size / 2.0);
+            } else if (tile == TILE_MINE) {
+                g.setFill(Color.RED);
+                g.fillText("X", size / 2.0, size / 2.0);
+            } else if (tile > 0 && tile < TILE_HIDDEN) {
+                g.setFill(NUMBER_COLORS[tile]);
+                g.fillText(Integer.toString(tile), size / 2.0, size / 2.0);
+            }
+            tiles[tile] = scratch.snapshot(params, new WritableImage(size, size));
+        }
+    }
+}
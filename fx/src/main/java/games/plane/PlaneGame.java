@@ -0,0 +1,247 @@
+package games.plane;
+
+import games.core.FixedStepClock;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+// 飞机大战的 JavaFX 外壳：规则都在 PlaneSimulation 里，这里只负责输入、按真实时间推进固定步和绘制。
+// 按键事件只记进 PlaneInput，每走一步轮询一次；按住空格按固定射速连发。
+// --stress 打开压力模式：每隔几秒把压力等级加一，直到整帧 p99 超出 60 FPS 的预算，HUD 上实时显示各阶段耗时
+public class PlaneGame extends Application {
+    private static final int WIDTH = PlaneSimulation.WIDTH; // 游戏窗口宽度
+    private static final int HEIGHT = PlaneSimulation.HEIGHT; // 游戏窗口高度
+    private static final int MAX_STEPS_PER_FRAME = 5; // 卡顿之后一帧最多补走的步数，再多就丢掉，不会越追越慢
+    private static final int STATS_WINDOW = 300; // 滚动窗口的帧数（60 FPS 下 5 秒）
+    private static final long LEVEL_NANOS = 3_000_000_000L; // 压力模式每隔多久尝试升一级
+
+    private Pane gamePane;
+    private Label scoreLabel;
+    private boolean useNodes; // --nodes：每个实体一个场景图节点；默认整帧画在一个 Canvas 上
+    private PlaneRenderer renderer;
+    private Rectangle playerNode;
+    // 节点模式下节点按槽位创建、反复使用，死亡的只是隐藏
+    private final Rectangle[] enemyNodes = new Rectangle[PlaneSimulation.MAX_ENEMIES];
+    private final Circle[] bulletNodes = new Circle[PlaneSimulation.MAX_BULLETS];
+    private final Circle[] shotNodes = new Circle[PlaneSimulation.MAX_ENEMY_SHOTS];
+    private final PlaneInput input = new PlaneInput();
+    private PlaneSimulation simulation;
+    private int shownScore = -1;
+    private PlaneFrameStats stats; // 压力模式才有
+    private boolean budgetExceeded; // 压力模式已经找到帧预算的上限，不再升级
+
+    public void start(Stage primaryStage) {
+        List<String> args = getParameters().getRaw();
+        useNodes = args.contains("--nodes");
+        int fireInterval = args.indexOf("--fire-interval");
+        if (fireInterval >= 0 && fireInterval + 1 < args.size()) {
+            input.setFireInterval(Integer.parseInt(args.get(fireInterval + 1)));
+        }
+        simulation = new PlaneSimulation(System.nanoTime());
+        if (args.contains("--stress")) {
+            simulation.setStressLevel(0);
+            stats = new PlaneFrameStats(STATS_WINDOW);
+            int csv = args.indexOf("--csv");
+            if (csv >= 0 && csv + 1 < args.size()) {
+                stats.openCsv(Paths.get(args.get(csv + 1)));
+            }
+        }
+        gamePane = new Pane();
+        gamePane.setPrefSize(WIDTH, HEIGHT);
+        if (!useNodes) {
+            renderer = new PlaneRenderer(simulation);
+            renderer.setStats(stats);
+            gamePane.getChildren().add(renderer);
+        }
+
+        BorderPane root = new BorderPane();
+        root.setCenter(gamePane);
+
+        scoreLabel = new Label("Score: 0");
+        scoreLabel.setFont(Font.font(20));
+        HBox topBox = new HBox(scoreLabel);
+        topBox.setAlignment(Pos.CENTER);
+        root.setTop(topBox);
+
+        Scene scene = new Scene(root, WIDTH, HEIGHT);
+        scene.setOnKeyPressed(e -> input.press(e.getCode()));
+        scene.setOnKeyReleased(e -> input.release(e.getCode()));
+
+        primaryStage.setTitle("Plane Game");
+        // 失去焦点时收不到松开事件，全部当作松开
+        primaryStage.focusedProperty().addListener((observable, wasFocused, focused) -> {
+            if (!focused) {
+                input.clear();
+            }
+        });
+        primaryStage.setOnHidden(e -> {
+            if (stats != null) {
+                stats.close();
+            }
+        });
+        primaryStage.setScene(scene);
+        primaryStage.setResizable(false);
+        primaryStage.show();
+
+        startGame();
+    }
+
+    private void startGame() {
+        if (useNodes) {
+            playerNode = new Rectangle(PlaneSimulation.PLAYER_SIZE, PlaneSimulation.PLAYER_SIZE, Color.BLUE);
+            gamePane.getChildren().add(playerNode);
+        }
+
+        AnimationTimer timer = new AnimationTimer() {
+            private final FixedStepClock clock = new FixedStepClock(MAX_STEPS_PER_FRAME);
+            private long started = -1;
+            private long nextLevel;
+            private long second; // 压力模式已经跑了多少整秒
+
+            public void handle(long now) {
+                // 固定时间步：真实时间累积起来，每攒够一步就推进一步，剩下的部分用来插值
+                if (started < 0) {
+                    started = now;
+                    nextLevel = now + LEVEL_NANOS;
+                }
+                clock.frame(now);
+                boolean alive = !simulation.isOver();
+                while (alive && clock.tryStep(PlaneSimulation.STEP_NANOS)) {
+                    alive = simulation.step(input.poll());
+                }
+                double alpha = alive ? clock.alpha(PlaneSimulation.STEP_NANOS) : 1;
+
+                long renderStart = System.nanoTime();
+                if (useNodes) {
+                    syncNodes(alpha);
+                } else {
+                    renderer.render(alpha);
+                }
+                long renderNanos = System.nanoTime() - renderStart;
+                if (stats != null) {
+                    updateStats(now, renderNanos);
+                } else if (simulation.getScore() != shownScore) {
+                    shownScore = simulation.getScore();
+                    scoreLabel.setText("Score: " + shownScore);
+                }
+                if (!alive) {
+                    stop();
+                }
+            }
+
+            // 压力模式：记下这一帧各阶段的耗时，每秒写一行 CSV，每隔 LEVEL_NANOS 没超预算就升一级
+            private void updateStats(long now, long renderNanos) {
+                long elapsedSeconds = (now - started) / 1_000_000_000L;
+                boolean newSecond = elapsedSeconds != second;
+                second = elapsedSeconds;
+                stats.record(simulation.getUpdateNanos(), simulation.getCollisionNanos(), renderNanos,
+                        simulation.getEntityCount());
+                simulation.clearTimings();
+                stats.summarize();
+                if (newSecond) {
+                    stats.writeCsvRow((now - started) / 1e9, simulation.getStressLevel());
+                    if (useNodes) {
+                        scoreLabel.setText(stats.line(PlaneFrameStats.FRAME) + "  entities " + stats.getEntities()
+                                + "  level " + simulation.getStressLevel());
+                    }
+                }
+                if (now >= nextLevel && !budgetExceeded) {
+                    nextLevel = now + LEVEL_NANOS;
+                    if (stats.overBudget()) {
+                        budgetExceeded = true;
+                        System.out.printf("Frame budget exceeded at level %d with %d entities: %s%n",
+                                simulation.getStressLevel(), stats.getEntities(), stats.line(PlaneFrameStats.FRAME));
+                    } else {
+                        simulation.setStressLevel(simulation.getStressLevel() + 1);
+                    }
+                }
+            }
+        };
+        timer.start();
+    }
+
+    // 节点模式：把实体同步到各自槽位的节点上，第一次用到的槽位才创建节点，之后只改坐标和可见性
+    private void syncNodes(double alpha) {
+        playerNode.setX(simulation.playerX(alpha));
+        playerNode.setY(simulation.playerY(alpha));
+        PlaneEntities enemies = simulation.getEnemies();
+        for (int i = 0; i < enemies.limit(); i++) {
+            Rectangle node = enemyNodes[i];
+            if (enemies.alive[i]) {
+                if (node == null) {
+                    node = new Rectangle(PlaneSimulation.ENEMY_SIZE, PlaneSimulation.ENEMY_SIZE);
+                    enemyNodes[i] = node;
+                    gamePane.getChildren().add(node);
+                }
+                node.setFill(enemyColor(enemies.type[i]));
+                node.setX(enemies.x[i] - enemies.vx[i] * (1 - alpha));
+                node.setY(enemies.y[i] - enemies.vy[i] * (1 - alpha));
+                node.setVisible(true);
+            } else if (node != null) {
+                node.setVisible(false);
+            }
+        }
+        PlaneEntities bullets = simulation.getBullets();
+        for (int i = 0; i < bullets.limit(); i++) {
+            Circle node = bulletNodes[i];
+            if (bullets.alive[i]) {
+                if (node == null) {
+                    node = new Circle(PlaneSimulation.BULLET_SIZE, Color.YELLOW);
+                    bulletNodes[i] = node;
+                    gamePane.getChildren().add(node);
+                }
+                node.setCenterX(bullets.x[i] - bullets.vx[i] * (1 - alpha) + PlaneSimulation.BULLET_SIZE);
+                node.setCenterY(bullets.y[i] - bullets.vy[i] * (1 - alpha) + PlaneSimulation.BULLET_SIZE);
+                node.setVisible(true);
+            } else if (node != null) {
+                node.setVisible(false);
+            }
+        }
+        PlaneEntities shots = simulation.getEnemyShots();
+        for (int i = 0; i < shots.limit(); i++) {
+            Circle node = shotNodes[i];
+            if (shots.alive[i]) {
+                if (node == null) {
+                    node = new Circle(PlaneSimulation.SHOT_SIZE, Color.ORANGE);
+                    shotNodes[i] = node;
+                    gamePane.getChildren().add(node);
+                }
+                node.setCenterX(shots.x[i] - shots.vx[i] * (1 - alpha) + PlaneSimulation.SHOT_SIZE);
+                node.setCenterY(shots.y[i] - shots.vy[i] * (1 - alpha) + PlaneSimulation.SHOT_SIZE);
+                node.setVisible(true);
+            } else if (node != null) {
+                node.setVisible(false);
+            }
+        }
+    }
+
+    private static Color enemyColor(byte type) {
+        switch (type) {
+            case PlaneSimulation.HOMING:
+                return Color.PURPLE;
+            case PlaneSimulation.SHOOTER:
+                return Color.DARKRED;
+            default:
+                return Color.RED;
+        }
+    }
+
+    public static void main(String[] args) {
+        // 参数：[--nodes] 用场景图节点代替单画布渲染，用来对比；[--stress [--csv 文件]] 压力模式，可导出每秒的统计；
+        // [--fire-interval 步数] 按住空格时每隔几步开一枪
+        launch(args);
+    }
+}
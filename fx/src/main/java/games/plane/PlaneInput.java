@@ -0,0 +1,82 @@
+package games.plane;
+
+import javafx.scene.input.KeyCode;
+
+// 键盘状态：按键事件只在位图里置位、清位，模拟每走一步轮询一次，换成 PlaneSimulation 的输入位。
+// 在两次轮询之间按下又松开的键也算按过一次，不会因为按得太快而丢掉。
+// 按住空格连续开火，射速按步数算（每 fireInterval 步一枪），和系统的按键重复无关；
+// 松开再按也要等冷却结束，连点不会比按住打得快。
+// 事件和轮询都在 JavaFX 线程上，不需要同步
+public class PlaneInput {
+    public static final int DEFAULT_FIRE_INTERVAL = 8; // 默认每隔几步开一枪（60 步每秒下约每秒 7.5 枪）
+    private static final int WORDS = (KeyCode.values().length + 63) / 64;
+
+    private final long[] held = new long[WORDS]; // 当前按住的键，按 KeyCode 的序号置位
+    private final long[] tapped = new long[WORDS]; // 上次轮询之后按下过的键
+    private int fireInterval = DEFAULT_FIRE_INTERVAL;
+    private int cooldown; // 还要再过几步才能开下一枪
+
+    public void press(KeyCode code) {
+        int bit = code.ordinal();
+        held[bit >>> 6] |= 1L << bit;
+        tapped[bit >>> 6] |= 1L << bit;
+    }
+
+    public void release(KeyCode code) {
+        int bit = code.ordinal();
+        held[bit >>> 6] &= ~(1L << bit);
+    }
+
+    // 现在按着，或者上次轮询之后按过
+    public boolean isDown(KeyCode code) {
+        int bit = code.ordinal();
+        return ((held[bit >>> 6] | tapped[bit >>> 6]) & (1L << bit)) != 0;
+    }
+
+    // 每步调用一次，返回这一步的输入位
+    public int poll() {
+        int input = 0;
+        if (isDown(KeyCode.LEFT)) {
+            input |= PlaneSimulation.LEFT;
+        }
+        if (isDown(KeyCode.RIGHT)) {
+            input |= PlaneSimulation.RIGHT;
+        }
+        if (isDown(KeyCode.UP)) {
+            input |= PlaneSimulation.UP;
+        }
+        if (isDown(KeyCode.DOWN)) {
+            input |= PlaneSimulation.DOWN;
+        }
+        if (cooldown > 0) {
+            cooldown--;
+        }
+        if (cooldown == 0 && isDown(KeyCode.SPACE)) {
+            input |= PlaneSimulation.FIRE;
+            cooldown = fireInterval;
+        }
+        for (int i = 0; i < WORDS; i++) {
+            tapped[i] = 0;
+        }
+        return input;
+    }
+
+    // 松开所有键，比如窗口失去焦点、收不到松开事件的时候
+    public void clear() {
+        for (int i = 0; i < WORDS; i++) {
+            held[i] = 0;
+            tapped[i] = 0;
+        }
+    }
+
+    public void setFireInterval(int steps) {
+        if (steps <= 0) {
+            throw new IllegalArgumentException("Fire interval must be positive: " + steps);
+        }
+        fireInterval = steps;
+    }
+
+    public int getFireInterval() {
+        return fireInterval;
+    }
+}
@@ -0,0 +1,178 @@
+package games.plane;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.BlendMode;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+
+// 单画布渲染：整帧画在一个 Canvas 上，场景图里只有这一个节点，开销不随实体数增长。
+// 敌机、子弹、玩家各自预先画成一张小图，每帧按类型分批 drawImage，
+// 同一批里不切换填充色和状态；坐标直接从模拟的实体数组读，按 alpha 在上一步和这一步之间插值。
+// 粒子在一个加色混合的批次里画完：每种粒子按淡出程度预先画好几张光斑图，按年龄挑图，批次里不改透明度。
+// 加色混合在白底上看不出来，所以背景是深色的。
+// 设置了帧统计时，左上角画各阶段耗时的 HUD
+public class PlaneRenderer extends Canvas {
+    private static final Color BACKGROUND_COLOR = Color.rgb(8, 8, 24);
+    private static final Color HUD_COLOR = Color.WHITE;
+    private static final int FADE_LEVELS = 8; // 粒子淡出分几档
+    private static final double[] PARTICLE_SIZES = {8, 6, 6}; // 按 PlaneParticles 的种类
+    private static final Color[] PARTICLE_COLORS = {Color.rgb(255, 140, 40), Color.rgb(255, 240, 150), Color.rgb(80, 150, 255)};
+    private static final Font HUD_FONT = Font.font("Monospaced", 12);
+
+    private final PlaneSimulation simulation;
+    private final Image playerSprite;
+    private final Image enemySprite;
+    private final Image homingSprite;
+    private final Image shooterSprite;
+    private final Image bulletSprite;
+    private final Image enemyShotSprite;
+    private final Image[][] particleSprites = new Image[PlaneParticles.KINDS][FADE_LEVELS]; // [种类][淡出档]
+    private PlaneFrameStats stats;
+    private long frameNanos; // 上一帧画图的耗时
+
+    // 需要在 JavaFX 线程上创建，精灵图是用快照画出来的
+    public PlaneRenderer(PlaneSimulation simulation) {
+        super(PlaneSimulation.WIDTH, PlaneSimulation.HEIGHT);
+        this.simulation = simulation;
+        playerSprite = sprite(PlaneSimulation.PLAYER_SIZE, Color.BLUE, false);
+        enemySprite = sprite(PlaneSimulation.ENEMY_SIZE, Color.RED, false);
+        homingSprite = sprite(PlaneSimulation.ENEMY_SIZE, Color.PURPLE, false);
+        shooterSprite = sprite(PlaneSimulation.ENEMY_SIZE, Color.DARKRED, false);
+        bulletSprite = sprite(PlaneSimulation.BULLET_SIZE * 2, Color.YELLOW, true);
+        enemyShotSprite = sprite(PlaneSimulation.SHOT_SIZE * 2, Color.ORANGE, true);
+        for (int kind = 0; kind < PlaneParticles.KINDS; kind++) {
+            for (int level = 0; level < FADE_LEVELS; level++) {
+                particleSprites[kind][level] = glow(PARTICLE_SIZES[kind], PARTICLE_COLORS[kind], 1 - (double) level / FADE_LEVELS);
+            }
+        }
+    }
+
+    public void setStats(PlaneFrameStats stats) {
+        this.stats = stats;
+    }
+
+    private static Image sprite(double size, Color color, boolean round) {
+        Canvas canvas = new Canvas(size, size);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFill(color);
+        if (round) {
+            g.fillOval(0, 0, size, size);
+        } else {
+            g.fillRect(0, 0, size, size);
+        }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(parameters, null);
+    }
+
+    // 中心亮、边缘透明的圆形光斑
+    private static Image glow(double size, Color color, double opacity) {
+        Canvas canvas = new Canvas(size, size);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFill(new RadialGradient(0, 0, 0.5, 0.5, 0.5, true, CycleMethod.NO_CYCLE,
+                new Stop(0, color.deriveColor(0, 1, 1, opacity)), new Stop(1, Color.TRANSPARENT)));
+        g.fillOval(0, 0, size, size);
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(parameters, null);
+    }
+
+    // 画一帧：背景、三种敌机、玩家子弹、敌方子弹、粒子、玩家，一种实体一批
+    public void render(double alpha) {
+        long start = System.nanoTime();
+        GraphicsContext g = getGraphicsContext2D();
+        g.setFill(BACKGROUND_COLOR);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        PlaneEntities enemies = simulation.getEnemies();
+        drawType(g, enemies, PlaneSimulation.ENEMY, enemySprite, alpha);
+        drawType(g, enemies, PlaneSimulation.HOMING, homingSprite, alpha);
+        drawType(g, enemies, PlaneSimulation.SHOOTER, shooterSprite, alpha);
+        drawAll(g, simulation.getBullets(), bulletSprite, alpha);
+        drawAll(g, simulation.getEnemyShots(), enemyShotSprite, alpha);
+        drawParticles(g, simulation.getParticles(), alpha);
+        g.drawImage(playerSprite, simulation.playerX(alpha), simulation.playerY(alpha));
+        if (stats != null) {
+            drawHud(g);
+        }
+        frameNanos = System.nanoTime() - start;
+    }
+
+    private void drawHud(GraphicsContext g) {
+        g.setFill(HUD_COLOR);
+        g.setFont(HUD_FONT);
+        double y = 16;
+        g.fillText("p50 / p99 / max over " + stats.getFrames() + " frames", 8, y);
+        for (int phase = PlaneFrameStats.UPDATE; phase <= PlaneFrameStats.FRAME; phase++) {
+            y += 14;
+            g.fillText(stats.line(phase), 8, y);
+        }
+        y += 14;
+        g.fillText("entities " + stats.getEntities() + "  particles " + simulation.getParticles().size()
+                + "  level " + simulation.getStressLevel() + "  hits " + simulation.getPlayerHits(), 8, y);
+    }
+
+    // 窗口里的粒子一个加色批次：年龄换算成淡出档，直接挑对应的图
+    private void drawParticles(GraphicsContext g, PlaneParticles particles, double alpha) {
+        double back = 1 - alpha;
+        double[] x = particles.x;
+        double[] y = particles.y;
+        double[] vx = particles.vx;
+        double[] vy = particles.vy;
+        int[] age = particles.age;
+        int[] life = particles.life;
+        byte[] kind = particles.kind;
+        g.setGlobalBlendMode(BlendMode.ADD);
+        int i = particles.first();
+        for (int k = particles.window(); k > 0; k--) {
+            if (age[i] < life[i]) {
+                Image sprite = particleSprites[kind[i]][age[i] * FADE_LEVELS / life[i]];
+                double half = sprite.getWidth() / 2;
+                g.drawImage(sprite, x[i] - vx[i] * back - half, y[i] - vy[i] * back - half);
+            }
+            if (++i == x.length) {
+                i = 0;
+            }
+        }
+        g.setGlobalBlendMode(BlendMode.SRC_OVER);
+    }
+
+    private static void drawType(GraphicsContext g, PlaneEntities entities, byte type, Image sprite, double alpha) {
+        double back = 1 - alpha;
+        double[] x = entities.x;
+        double[] y = entities.y;
+        double[] vx = entities.vx;
+        double[] vy = entities.vy;
+        byte[] types = entities.type;
+        boolean[] alive = entities.alive;
+        for (int i = 0; i < entities.limit(); i++) {
+            if (alive[i] && types[i] == type) {
+                g.drawImage(sprite, x[i] - vx[i] * back, y[i] - vy[i] * back);
+            }
+        }
+    }
+
+    private static void drawAll(GraphicsContext g, PlaneEntities entities, Image sprite, double alpha) {
+        // 实体都是匀速运动，上一步的位置就是这一步减去一步的速度
+        double back = 1 - alpha;
+        double[] x = entities.x;
+        double[] y = entities.y;
+        double[] vx = entities.vx;
+        double[] vy = entities.vy;
+        boolean[] alive = entities.alive;
+        for (int i = 0; i < entities.limit(); i++) {
+            if (alive[i]) {
+                g.drawImage(sprite, x[i] - vx[i] * back, y[i] - vy[i] * back);
+            }
+        }
+    }
+
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+}
@@ -0,0 +1,57 @@
+package games.core;
+
+// 固定时间步的时钟：真实时间累积起来，每攒够一步的时长就推进一步，剩下不足一步的部分用来插值。
+// 一帧最多补走 maxStepsPerFrame 步，卡顿之后多出来的时间直接丢掉，不会越追越慢。
+// 步长可以每步不同（比如蛇越长走得越快），由调用方每次传进来。
+// 用法：每帧先 frame(now)，再 while (tryStep(stepNanos)) 推进模拟，最后用 alpha(stepNanos) 插值绘制
+public final class FixedStepClock {
+    private final int maxStepsPerFrame;
+    private long previous = -1; // 上一帧的时间，-1 表示还没开始
+    private long accumulator; // 攒下还没走的时间
+    private int steps; // 这一帧已经走的步数
+
+    public FixedStepClock(int maxStepsPerFrame) {
+        if (maxStepsPerFrame <= 0) {
+            throw new IllegalArgumentException("Max steps per frame must be positive: " + maxStepsPerFrame);
+        }
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    // 开始新的一帧，把距上一帧的真实时间加进来；第一帧只记下起点
+    public void frame(long now) {
+        if (previous >= 0) {
+            accumulator += now - previous;
+        }
+        previous = now;
+        steps = 0;
+    }
+
+    // 攒够一步并且这一帧还没走满，就扣掉一步的时间、返回 true
+    public boolean tryStep(long stepNanos) {
+        if (accumulator < stepNanos || steps == maxStepsPerFrame) {
+            return false;
+        }
+        accumulator -= stepNanos;
+        steps++;
+        return true;
+    }
+
+    // 这一帧走完之后调用：还积压着整步的时间就丢掉，返回上一步和下一步之间的插值位置（0 到 1）
+    public double alpha(long stepNanos) {
+        if (accumulator >= stepNanos) {
+            accumulator = 0;
+        }
+        return (double) accumulator / stepNanos;
+    }
+
+    // 这一帧走了几步
+    public int getSteps() {
+        return steps;
+    }
+
+    public void reset() {
+        previous = -1;
+        accumulator = 0;
+        steps = 0;
+    }
+}
@@ -0,0 +1,50 @@
+package games.core;
+
+// 三个游戏共用的带种子随机数：splitmix64，一个 long 就是全部状态，存档、快照和回放只要记下这个 long。
+// 同一个种子永远得到同一串数，模拟在服务器、压测和机器人里跑出来的结果可以逐位复现
+public final class SplitMix64 {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public SplitMix64(long seed) {
+        state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    // [0, bound) 里的 int：高 32 位乘 bound 取高位，偏差不超过 bound / 2^32
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    // [0, 1) 里均匀分布的 double，用高 53 位
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    // splitmix64 的混合函数，也可以单独用来把任意 long 打散成哈希
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // 第 index 局的种子只由基础种子和局号决定，所以批量对局的结果与线程数和执行顺序无关
+    public static long gameSeed(long seed, long index) {
+        return mix(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+}
@@ -0,0 +1,453 @@
+package games.minesweeper;
+
+import games.core.SplitMix64;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 无限扫雷：世界切成 64x64 的区块，第一次访问时由种子和区块坐标确定性地生成；
+// 最近没访问的区块按 LRU 淘汰，改动过的区块淘汰前先写盘，所以内存只和已探索的范围有关
+public class InfiniteMinesweeper implements MinesweeperBoard {
+    public static final double DEFAULT_DENSITY = 0.16; // 默认地雷密度
+    static final int CHUNK_BITS = 6;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS; // 区块边长，一行正好一个 long
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int DEFAULT_MAX_CHUNKS = 4096; // 常驻内存的区块数上限（约 22MB）
+    private static final int CASCADE_RADIUS = 1 << 14; // 一次连锁揭示离点击位置的最大距离
+    private static final int DELTA_STRIDE = CASCADE_RADIUS * 2;
+    private static final int MAX_CASCADE = 1 << 22; // 一次连锁最多揭示的格子数
+    private static final int HEADER_MAGIC = 0x4D494E46; // "MINF"
+    private static final int HEADER_SIZE = 37;
+
+    private long seed; // 生成区块用的种子，reset 时换新的
+    private final double density; // 地雷密度
+    private final int maxChunks;
+    private final Path directory; // 区块存档目录
+
+    private final LinkedHashMap<Long, Chunk> chunks;
+    private long lastKey = Long.MIN_VALUE; // 最近访问的区块，连续访问同一区块时不查表
+    private Chunk lastChunk;
+
+    private long revealedCount; // 已揭示格子数
+    private long flagCount; // 已标记数量
+    private boolean exploded; // 是否踩到地雷
+
+    // 连锁揭示用的环形队列，按需扩容
+    private int[] queueRows = new int[1024];
+    private int[] queueCols = new int[1024];
+
+    public InfiniteMinesweeper(long seed, double density, Path directory) {
+        this(seed, density, directory, DEFAULT_MAX_CHUNKS);
+    }
+
+    public InfiniteMinesweeper(long seed, double density, Path directory, int maxChunks) {
+        if (density <= 0 || density >= 1) {
+            throw new IllegalArgumentException("Mine density must be between 0 and 1: " + density);
+        }
+        this.seed = seed;
+        this.density = density;
+        this.maxChunks = maxChunks;
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.chunks = new LinkedHashMap<Long, Chunk>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+                if (size() <= InfiniteMinesweeper.this.maxChunks) {
+                    return false;
+                }
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+        // 新世界一创建就写头部：区块被淘汰写盘时目录里已经记着种子和密度，
+        // 没来得及 flush 就退出，下次打开也能按原来的种子认出这些区块
+        if (!Files.exists(directory.resolve("world.bin"))) {
+            writeHeader();
+        }
+    }
+
+    // 打开已有的世界目录，沿用存档里的种子和密度；没有存档时用 seed 和默认密度新建
+    public static InfiniteMinesweeper open(Path directory, long seed) {
+        return open(directory, seed, Double.NaN);
+    }
+
+    // 同上，但要求密度是 density：新建时用它，已有存档的密度不一样就报错，不会悄悄换成存档里的。
+    // seed 只在新建时用——磁盘上揭示过的格子是按存档里的种子布的雷，换种子会对不上
+    public static InfiniteMinesweeper open(Path directory, long seed, double density) {
+        Path header = directory.resolve("world.bin");
+        if (!Files.exists(header)) {
+            return new InfiniteMinesweeper(seed, Double.isNaN(density) ? DEFAULT_DENSITY : density, directory);
+        }
+        try (FileChannel channel = FileChannel.open(header, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满头部
+            }
+            buffer.flip();
+            if (buffer.getInt() != HEADER_MAGIC) {
+                throw new IOException("Not an infinite minesweeper world: " + header);
+            }
+            long savedSeed = buffer.getLong();
+            double savedDensity = buffer.getDouble();
+            if (!Double.isNaN(density) && density != savedDensity) {
+                throw new IllegalArgumentException("World in " + directory + " has mine density " + savedDensity
+                        + ", not " + density + "; open it without a density or use another directory");
+            }
+            InfiniteMinesweeper world = new InfiniteMinesweeper(savedSeed, savedDensity, directory);
+            world.revealedCount = buffer.getLong();
+            world.flagCount = buffer.getLong();
+            world.exploded = buffer.get() != 0;
+            return world;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getDensity() {
+        return density;
+    }
+
+    public long getRevealedCount() {
+        return revealedCount;
+    }
+
+    public long getFlagCount() {
+        return flagCount;
+    }
+
+    public int getLoadedChunks() {
+        return chunks.size();
+    }
+
+    @Override
+    public int getRows() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int getCols() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean isUnbounded() {
+        return true;
+    }
+
+    @Override
+    public boolean inBounds(int row, int col) {
+        return true;
+    }
+
+    @Override
+    public boolean isExploded() {
+        return exploded;
+    }
+
+    @Override
+    public boolean isWon() {
+        return false;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return exploded;
+    }
+
+    @Override
+    public boolean isMine(int row, int col) {
+        return chunk(row, col).isMine(row & CHUNK_MASK, col & CHUNK_MASK);
+    }
+
+    @Override
+    public boolean isRevealed(int row, int col) {
+        return chunk(row, col).isRevealed(row & CHUNK_MASK, col & CHUNK_MASK);
+    }
+
+    @Override
+    public boolean isFlagged(int row, int col) {
+        return chunk(row, col).isFlagged(row & CHUNK_MASK, col & CHUNK_MASK);
+    }
+
+    @Override
+    public int adjacentMines(int row, int col) {
+        return chunk(row, col).adjacent[((row & CHUNK_MASK) << CHUNK_BITS) | (col & CHUNK_MASK)];
+    }
+
+    @Override
+    public boolean toggleFlag(int row, int col) {
+        Chunk chunk = chunk(row, col);
+        int r = row & CHUNK_MASK;
+        int c = col & CHUNK_MASK;
+        if (chunk.isRevealed(r, c)) {
+            return false;
+        }
+        chunk.flagged[r] ^= 1L << c;
+        chunk.dirty = true;
+        boolean nowFlagged = chunk.isFlagged(r, c);
+        flagCount += nowFlagged ? 1 : -1;
+        return nowFlagged;
+    }
+
+    @Override
+    public int revealCascade(int row, int col, MinesweeperEngine.Delta delta) {
+        // 和 MinesweeperEngine 一样用队列扩散；范围限制在点击位置周围，超出的零格子留给玩家继续点开
+        delta.reset(row - CASCADE_RADIUS, col - CASCADE_RADIUS, DELTA_STRIDE);
+        if (isRevealed(row, col) || isFlagged(row, col)) {
+            return 0;
+        }
+        revealInto(row, col, delta);
+        if (isMine(row, col) || adjacentMines(row, col) != 0) {
+            return delta.size();
+        }
+
+        int mask = queueRows.length - 1;
+        int head = 0;
+        int size = 1;
+        queueRows[0] = row;
+        queueCols[0] = col;
+        while (size > 0 && delta.size() < MAX_CASCADE) {
+            int r = queueRows[head];
+            int c = queueCols[head];
+            head = (head + 1) & mask;
+            size--;
+            for (int i = r - 1; i <= r + 1; i++) {
+                for (int j = c - 1; j <= c + 1; j++) {
+                    if (Math.abs(i - row) >= CASCADE_RADIUS || Math.abs(j - col) >= CASCADE_RADIUS
+                            || isRevealed(i, j) || isFlagged(i, j)) {
+                        continue;
+                    }
+                    revealInto(i, j, delta);
+                    if (adjacentMines(i, j) == 0) {
+                        if (size == queueRows.length) {
+                            growQueue(head, size);
+                            mask = queueRows.length - 1;
+                            head = 0;
+                        }
+                        queueRows[(head + size) & mask] = i;
+                        queueCols[(head + size) & mask] = j;
+                        size++;
+                    }
+                }
+            }
+        }
+        return delta.size();
+    }
+
+    private void revealInto(int row, int col, MinesweeperEngine.Delta delta) {
+        Chunk chunk = chunk(row, col);
+        int r = row & CHUNK_MASK;
+        int c = col & CHUNK_MASK;
+        chunk.revealed[r] |= 1L << c;
+        chunk.dirty = true;
+        revealedCount++;
+        if (chunk.isMine(r, c)) {
+            exploded = true;
+        }
+        delta.add((row - delta.getOriginRow()) * DELTA_STRIDE + (col - delta.getOriginCol()), row, col);
+    }
+
+    private void growQueue(int head, int size) {
+        int[] rows = new int[queueRows.length << 1];
+        int[] cols = new int[queueCols.length << 1];
+        int mask = queueRows.length - 1;
+        for (int i = 0; i < size; i++) {
+            rows[i] = queueRows[(head + i) & mask];
+            cols[i] = queueCols[(head + i) & mask];
+        }
+        queueRows = rows;
+        queueCols = cols;
+    }
+
+    // 踩雷之后存档里记着 exploded，再打开也只能看不能玩；这里丢掉所有区块存档，用新种子重新开始（密度不变）
+    public void reset(long seed) {
+        chunks.clear();
+        lastKey = Long.MIN_VALUE;
+        lastChunk = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "chunk_*.bin")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.seed = seed;
+        revealedCount = 0;
+        flagCount = 0;
+        exploded = false;
+        flush();
+    }
+
+    // 把所有改动过的区块和世界头部写盘
+    public void flush() {
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.dirty) {
+                save(chunk);
+            }
+        }
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(HEADER_MAGIC).putLong(seed).putDouble(density)
+                .putLong(revealedCount).putLong(flagCount).put((byte) (exploded ? 1 : 0));
+        buffer.flip();
+        write(directory.resolve("world.bin"), buffer);
+    }
+
+    private Chunk chunk(int row, int col) {
+        int chunkRow = row >> CHUNK_BITS;
+        int chunkCol = col >> CHUNK_BITS;
+        long key = ((long) chunkRow << 32) | (chunkCol & 0xFFFFFFFFL);
+        if (key == lastKey) {
+            return lastChunk;
+        }
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = load(chunkRow, chunkCol);
+            chunks.put(key, chunk);
+        }
+        lastKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    private Chunk load(int chunkRow, int chunkCol) {
+        // 地雷和相邻数每次都从种子重新生成，磁盘上只存揭示和标记
+        Chunk chunk = generate(chunkRow, chunkCol);
+        Path file = chunkFile(chunkRow, chunkCol);
+        if (Files.exists(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE * 16);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // 读满整个区块
+                }
+                buffer.flip();
+                buffer.asLongBuffer().get(chunk.revealed).get(chunk.flagged);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return chunk;
+    }
+
+    private void evict(Chunk chunk) {
+        if (chunk.dirty) {
+            save(chunk);
+        }
+        if (chunk == lastChunk) {
+            lastKey = Long.MIN_VALUE;
+            lastChunk = null;
+        }
+    }
+
+    private void save(Chunk chunk) {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE * 16);
+        buffer.asLongBuffer().put(chunk.revealed).put(chunk.flagged);
+        write(chunkFile(chunk.chunkRow, chunk.chunkCol), buffer);
+        chunk.dirty = false;
+    }
+
+    private static void write(Path file, ByteBuffer buffer) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path chunkFile(int chunkRow, int chunkCol) {
+        return directory.resolve("chunk_" + chunkRow + "_" + chunkCol + ".bin");
+    }
+
+    private Chunk generate(int chunkRow, int chunkCol) {
+        // 多算一圈边框上的地雷（来自相邻区块，同样由种子决定），再统计相邻数
+        Chunk chunk = new Chunk(chunkRow, chunkCol);
+        int baseRow = chunkRow << CHUNK_BITS;
+        int baseCol = chunkCol << CHUNK_BITS;
+        boolean[] halo = new boolean[(CHUNK_SIZE + 2) * (CHUNK_SIZE + 2)];
+        int width = CHUNK_SIZE + 2;
+        for (int r = -1; r <= CHUNK_SIZE; r++) {
+            for (int c = -1; c <= CHUNK_SIZE; c++) {
+                boolean mine = generatedMine(baseRow + r, baseCol + c);
+                halo[(r + 1) * width + c + 1] = mine;
+                if (mine && r >= 0 && r < CHUNK_SIZE && c >= 0 && c < CHUNK_SIZE) {
+                    chunk.mines[r] |= 1L << c;
+                }
+            }
+        }
+        for (int r = 0; r < CHUNK_SIZE; r++) {
+            for (int c = 0; c < CHUNK_SIZE; c++) {
+                int count = 0;
+                for (int i = r; i <= r + 2; i++) {
+                    for (int j = c; j <= c + 2; j++) {
+                        if (halo[i * width + j] && (i != r + 1 || j != c + 1)) {
+                            count++;
+                        }
+                    }
+                }
+                chunk.adjacent[(r << CHUNK_BITS) | c] = (byte) count;
+            }
+        }
+        return chunk;
+    }
+
+    private boolean generatedMine(int row, int col) {
+        // 起点 (0,0) 周围一圈永远没有地雷，保证第一下能点开
+        if (Math.abs(row) <= 1 && Math.abs(col) <= 1) {
+            return false;
+        }
+        long chunkKey = ((long) (row >> CHUNK_BITS) << 32) | ((col >> CHUNK_BITS) & 0xFFFFFFFFL);
+        long local = ((row & CHUNK_MASK) << CHUNK_BITS) | (col & CHUNK_MASK);
+        long h = SplitMix64.mix(seed ^ SplitMix64.mix(chunkKey) ^ (local * 0x9E3779B97F4A7C15L));
+        return (h >>> 11) * 0x1.0p-53 < density;
+    }
+
+    // 一个区块：每行一个 long 的位图，加上逐格的相邻地雷数
+    private static class Chunk {
+        final int chunkRow;
+        final int chunkCol;
+        final long[] mines = new long[CHUNK_SIZE];
+        final long[] revealed = new long[CHUNK_SIZE];
+        final long[] flagged = new long[CHUNK_SIZE];
+        final byte[] adjacent = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        boolean dirty;
+
+        Chunk(int chunkRow, int chunkCol) {
+            this.chunkRow = chunkRow;
+            this.chunkCol = chunkCol;
+        }
+
+        boolean isMine(int r, int c) {
+            return (mines[r] & (1L << c)) != 0;
+        }
+
+        boolean isRevealed(int r, int c) {
+            return (revealed[r] & (1L << c)) != 0;
+        }
+
+        boolean isFlagged(int r, int c) {
+            return (flagged[r] & (1L << c)) != 0;
+        }
+    }
+}
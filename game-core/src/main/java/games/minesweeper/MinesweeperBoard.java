@@ -0,0 +1,34 @@
+package games.minesweeper;
+
+// 渲染和输入处理看到的扫雷棋盘：固定大小的 MinesweeperEngine 和无限大小的 InfiniteMinesweeper 都实现它
+public interface MinesweeperBoard {
+    // 无限棋盘返回 Integer.MAX_VALUE
+    int getRows();
+
+    int getCols();
+
+    default boolean isUnbounded() {
+        return false;
+    }
+
+    boolean inBounds(int row, int col);
+
+    boolean isRevealed(int row, int col);
+
+    boolean isFlagged(int row, int col);
+
+    boolean isMine(int row, int col);
+
+    int adjacentMines(int row, int col);
+
+    // 揭示格子并连锁展开，变化的格子写入 delta，返回变化的格子数量
+    int revealCascade(int row, int col, MinesweeperEngine.Delta delta);
+
+    boolean toggleFlag(int row, int col);
+
+    boolean isExploded();
+
+    boolean isWon();
+
+    boolean isGameOver();
+}
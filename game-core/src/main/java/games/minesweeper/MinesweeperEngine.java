@@ -0,0 +1,671 @@
+package games.minesweeper;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 不依赖 UI 的扫雷引擎：地雷、已揭示、已标记都存成按位压缩的 long[]，相邻地雷数预先算好
+public class MinesweeperEngine implements MinesweeperBoard {
+    private final int rows; // 行数
+    private final int cols; // 列数
+    private final int cellCount; // 格子总数
+    private final int mineCount; // 地雷数量
+
+    private final long[] mines; // 地雷位图
+    private final long[] revealed; // 已揭示位图
+    private final long[] flagged; // 已标记位图
+    private final byte[] adjacent; // 相邻地雷数，每个字节存两个格子（低4位/高4位）
+
+    private int[] queue = new int[1024]; // 连锁揭示用的环形队列，容量为2的幂，只在装满时扩容
+
+    static final int PAGE_SHIFT = 15; // 每页 2^15 个格子，即 512 个 long、4KB，存档按页增量写回
+    private final long[] dirtyPages; // 揭示/标记位图中自上次存档以来改动过的页
+    private boolean minesDirty; // 地雷位图自上次存档以来是否重新布置过
+
+    // 读档后位图按页懒加载：pageSource 是存档映射里依次排列的地雷、已揭示、已标记三张位图，
+    // 某一页第一次被访问时才拷进来并算出这一页的相邻地雷数；全部拷完或者重新布雷之后为 null
+    private LongBuffer pageSource;
+    private long[] pendingPages; // 还没拷进来的页
+    private long[] pendingMinePages; // 地雷位还没拷进来的页；算相邻地雷数要用到上下邻页的地雷
+    private int pendingCount;
+
+    private long seed; // 布雷用的种子
+    private boolean minesPlaced; // 是否已经布雷
+
+    private int remaining; // 剩余未揭示的安全格子数量
+    private int flags; // 已标记数量
+    private boolean exploded; // 是否踩到地雷
+    // 所有引擎共用的代号计数器：代号全局唯一，求解器只记代号就能认出是不是同一个引擎的同一局
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    // 每次新局或读档换一个；同一代里揭示位图只增不减，求解器据此增量维护边界
+    private long generation = GENERATIONS.incrementAndGet();
+
+    public MinesweeperEngine(int rows, int cols, int mineCount) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Board size must be positive: " + rows + "x" + cols);
+        }
+        long cells = (long) rows * cols;
+        if (cells > Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Board too large: " + rows + "x" + cols);
+        }
+        if (mineCount < 0 || mineCount > cells) {
+            throw new IllegalArgumentException("Invalid mine count: " + mineCount);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cellCount = (int) cells;
+        this.mineCount = mineCount;
+
+        int words = (cellCount + 63) >>> 6;
+        mines = new long[words];
+        revealed = new long[words];
+        flagged = new long[words];
+        adjacent = new byte[(cellCount + 1) >>> 1];
+        dirtyPages = new long[(pageCount() + 63) >>> 6];
+        remaining = cellCount - mineCount;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getMineCount() {
+        return mineCount;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public int getFlagCount() {
+        return flags;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean areMinesPlaced() {
+        return minesPlaced;
+    }
+
+    @Override
+    public boolean isExploded() {
+        return exploded;
+    }
+
+    @Override
+    public boolean isWon() {
+        return remaining == 0 && !exploded;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return exploded || remaining == 0;
+    }
+
+    public int index(int row, int col) {
+        return row * cols + col;
+    }
+
+    @Override
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public void placeMines(long seed) {
+        placeMines(seed, -1, -1);
+    }
+
+    public void placeMines(long seed, int safeRow, int safeCol) {
+        // 布雷并清空上一局的状态；(safeRow, safeCol) 及其周围一圈不放雷，保证第一下点开。
+        // 用 Floyd 形式的部分 Fisher–Yates 洗牌：第 j 步在 [0, j] 里抽一个下标，已被选过就改选 j，
+        // 地雷位图本身就是“已选集合”，所以是 O(地雷数)、没有重试、也不需要额外数组
+        clear();
+        this.seed = seed;
+        int[] excluded = safeZone(safeRow, safeCol);
+        int candidates = cellCount - excluded.length;
+
+        if (mineCount <= candidates / 2) {
+            sample(mines, mineCount, candidates, excluded, new SplittableRandom(seed));
+        } else {
+            // 密集棋盘：抽出不放雷的格子，再取反，代价是 O(格子数/64 + 空格数)
+            sample(mines, candidates - mineCount, candidates, excluded, new SplittableRandom(seed));
+            for (int w = 0; w < mines.length; w++) {
+                mines[w] = ~mines[w];
+            }
+            int tail = cellCount & 63;
+            if (tail != 0) {
+                mines[mines.length - 1] &= (1L << tail) - 1;
+            }
+            for (int cell : excluded) {
+                mines[cell >>> 6] &= ~(1L << cell);
+            }
+        }
+        computeAdjacency();
+        minesPlaced = true;
+    }
+
+    private int[] safeZone(int safeRow, int safeCol) {
+        // 返回升序的排除格子；地雷太多放不下时缩小安全区
+        if (!inBounds(safeRow, safeCol)) {
+            return new int[0];
+        }
+        int[] zone = new int[9];
+        int size = 0;
+        for (int i = safeRow - 1; i <= safeRow + 1; i++) {
+            for (int j = safeCol - 1; j <= safeCol + 1; j++) {
+                if (inBounds(i, j)) {
+                    zone[size++] = index(i, j);
+                }
+            }
+        }
+        if (mineCount <= cellCount - size) {
+            return Arrays.copyOf(zone, size);
+        }
+        if (mineCount <= cellCount - 1) {
+            return new int[]{index(safeRow, safeCol)};
+        }
+        return new int[0];
+    }
+
+    private static void sample(long[] bits, int count, int candidates, int[] excluded, SplittableRandom random) {
+        for (int j = candidates - count; j < candidates; j++) {
+            int cell = skipExcluded(random.nextInt(j + 1), excluded);
+            if (testBit(bits, cell)) {
+                cell = skipExcluded(j, excluded);
+            }
+            setBit(bits, cell);
+        }
+    }
+
+    private static int skipExcluded(int candidate, int[] excluded) {
+        // 把第 candidate 个候选格子映射回格子下标（excluded 升序，最多9个）
+        int cell = candidate;
+        for (int e : excluded) {
+            if (cell >= e) {
+                cell++;
+            }
+        }
+        return cell;
+    }
+
+    private void clear() {
+        pageSource = null; // 存档里的旧局面不再需要
+        Arrays.fill(mines, 0L);
+        Arrays.fill(revealed, 0L);
+        Arrays.fill(flagged, 0L);
+        Arrays.fill(adjacent, (byte) 0);
+        remaining = cellCount - mineCount;
+        flags = 0;
+        exploded = false;
+        minesPlaced = false;
+        generation = GENERATIONS.incrementAndGet();
+        markAllDirty();
+    }
+
+    private void computeAdjacency() {
+        // 只遍历地雷，给周围8个格子的计数加一，代价是 O(地雷数)；
+        // 地雷按下标递增遍历，行列号增量维护，不做除法
+        int row = 0;
+        int rowStart = 0;
+        for (int w = 0; w < mines.length; w++) {
+            long word = mines[w];
+            while (word != 0) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                while (cell - rowStart >= cols) {
+                    row++;
+                    rowStart += cols;
+                }
+                int col = cell - rowStart;
+                if (row > 0 && row < rows - 1 && col > 0 && col < cols - 1) {
+                    incrementAdjacent(cell - cols - 1);
+                    incrementAdjacent(cell - cols);
+                    incrementAdjacent(cell - cols + 1);
+                    incrementAdjacent(cell - 1);
+                    incrementAdjacent(cell + 1);
+                    incrementAdjacent(cell + cols - 1);
+                    incrementAdjacent(cell + cols);
+                    incrementAdjacent(cell + cols + 1);
+                    continue;
+                }
+                for (int i = row - 1; i <= row + 1; i++) {
+                    for (int j = col - 1; j <= col + 1; j++) {
+                        if ((i != row || j != col) && inBounds(i, j)) {
+                            incrementAdjacent(i * cols + j);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isMine(int row, int col) {
+        int cell = index(row, col);
+        ensurePage(cell);
+        return testBit(mines, cell);
+    }
+
+    @Override
+    public boolean isRevealed(int row, int col) {
+        int cell = index(row, col);
+        ensurePage(cell);
+        return testBit(revealed, cell);
+    }
+
+    @Override
+    public boolean isFlagged(int row, int col) {
+        int cell = index(row, col);
+        ensurePage(cell);
+        return testBit(flagged, cell);
+    }
+
+    @Override
+    public int adjacentMines(int row, int col) {
+        return adjacentAt(index(row, col));
+    }
+
+    public boolean reveal(int row, int col) {
+        // 揭示单个格子，返回状态是否发生变化
+        int cell = index(row, col);
+        ensurePage(cell);
+        if (testBit(revealed, cell) || testBit(flagged, cell)) {
+            return false;
+        }
+        setBit(revealed, cell);
+        markDirty(cell);
+        if (testBit(mines, cell)) {
+            exploded = true;
+        } else {
+            remaining--;
+        }
+        return true;
+    }
+
+    @Override
+    public int revealCascade(int row, int col, Delta delta) {
+        // 揭示格子，遇到相邻地雷数为0的格子时用队列向外扩散（不递归），
+        // 所有变化的格子写入 delta，返回变化的格子数量
+        delta.reset(0, 0, cols);
+        int start = index(row, col);
+        ensurePage(start);
+        if (testBit(revealed, start) || testBit(flagged, start)) {
+            return 0;
+        }
+        revealInto(start, row, col, delta);
+        if (testBit(mines, start) || adjacentAt(start) != 0) {
+            return delta.size();
+        }
+
+        int[] q = queue;
+        int mask = q.length - 1;
+        int head = 0;
+        int size = 0;
+        q[0] = start;
+        size++;
+        while (size > 0) {
+            int cell = q[head];
+            head = (head + 1) & mask;
+            size--;
+            int r = cell / cols;
+            int c = cell - r * cols;
+            int rowFrom = Math.max(r - 1, 0);
+            int rowTo = Math.min(r + 1, rows - 1);
+            int colFrom = Math.max(c - 1, 0);
+            int colTo = Math.min(c + 1, cols - 1);
+            for (int i = rowFrom; i <= rowTo; i++) {
+                int base = i * cols;
+                for (int j = colFrom; j <= colTo; j++) {
+                    int next = base + j;
+                    ensurePage(next);
+                    if (testBit(revealed, next) || testBit(flagged, next)) {
+                        continue;
+                    }
+                    revealInto(next, i, j, delta);
+                    if (adjacentAt(next) == 0) {
+                        if (size == q.length) {
+                            q = growQueue(q, head, size);
+                            mask = q.length - 1;
+                            head = 0;
+                        }
+                        q[(head + size) & mask] = next;
+                        size++;
+                    }
+                }
+            }
+        }
+        return delta.size();
+    }
+
+    private void revealInto(int cell, int row, int col, Delta delta) {
+        setBit(revealed, cell);
+        markDirty(cell);
+        if (testBit(mines, cell)) {
+            exploded = true;
+        } else {
+            remaining--;
+        }
+        delta.add(cell, row, col);
+    }
+
+    private int[] growQueue(int[] q, int head, int size) {
+        // 按顺序搬到两倍大小的新数组，之后的揭示会复用它
+        int[] bigger = new int[q.length << 1];
+        int mask = q.length - 1;
+        for (int i = 0; i < size; i++) {
+            bigger[i] = q[(head + i) & mask];
+        }
+        queue = bigger;
+        return bigger;
+    }
+
+    @Override
+    public boolean toggleFlag(int row, int col) {
+        // 切换标记，返回切换后的标记状态；已揭示的格子忽略
+        int cell = index(row, col);
+        ensurePage(cell);
+        if (testBit(revealed, cell)) {
+            return false;
+        }
+        flagged[cell >>> 6] ^= 1L << cell;
+        markDirty(cell);
+        boolean nowFlagged = testBit(flagged, cell);
+        flags += nowFlagged ? 1 : -1;
+        return nowFlagged;
+    }
+
+    public void revealAllCells() {
+        // 游戏结束时一次性揭示全部格子
+        loadAllPages();
+        Arrays.fill(revealed, -1L);
+        int tail = cellCount & 63;
+        if (tail != 0) {
+            revealed[revealed.length - 1] = (1L << tail) - 1;
+        }
+        Arrays.fill(dirtyPages, -1L);
+    }
+
+    // 一次操作中发生变化的格子以及它们的包围盒，供 UI 只刷新这些格子。
+    // 格子按 (行 - originRow) * stride + (列 - originCol) 紧凑存成 int
+    public static class Delta {
+        private int[] cells;
+        private int size;
+        private int originRow;
+        private int originCol;
+        private int stride = 1;
+        private int minRow;
+        private int maxRow;
+        private int minCol;
+        private int maxCol;
+
+        public Delta() {
+            this(256);
+        }
+
+        public Delta(int initialCapacity) {
+            cells = new int[Math.max(initialCapacity, 16)];
+            clear();
+        }
+
+        public void clear() {
+            size = 0;
+            minRow = Integer.MAX_VALUE;
+            minCol = Integer.MAX_VALUE;
+            maxRow = Integer.MIN_VALUE;
+            maxCol = Integer.MIN_VALUE;
+        }
+
+        void reset(int originRow, int originCol, int stride) {
+            clear();
+            this.originRow = originRow;
+            this.originCol = originCol;
+            this.stride = stride;
+        }
+
+        void add(int cell, int row, int col) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size << 1);
+            }
+            cells[size++] = cell;
+            if (row < minRow) minRow = row;
+            if (row > maxRow) maxRow = row;
+            if (col < minCol) minCol = col;
+            if (col > maxCol) maxCol = col;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int cell(int i) {
+            return cells[i];
+        }
+
+        public int getOriginRow() {
+            return originRow;
+        }
+
+        public int getOriginCol() {
+            return originCol;
+        }
+
+        public int row(int i) {
+            return originRow + cells[i] / stride;
+        }
+
+        public int col(int i) {
+            return originCol + cells[i] % stride;
+        }
+
+        public int getMinRow() {
+            return minRow;
+        }
+
+        public int getMaxRow() {
+            return maxRow;
+        }
+
+        public int getMinCol() {
+            return minCol;
+        }
+
+        public int getMaxCol() {
+            return maxCol;
+        }
+    }
+
+    void restore(LongBuffer source, long seed, boolean minesPlaced, int remaining, int flags, boolean exploded) {
+        // 读档：只记下存档映射和计数器，位图等访问到时按页拷进来，代价和棋盘大小无关。
+        // 只用于刚创建的引擎，位图和相邻地雷数都还是 0
+        int pages = pageCount();
+        pendingPages = new long[(pages + 63) >>> 6];
+        pendingMinePages = new long[pendingPages.length];
+        for (int page = 0; page < pages; page++) {
+            setBit(pendingPages, page);
+            setBit(pendingMinePages, page);
+        }
+        pendingCount = pages;
+        pageSource = source;
+        this.seed = seed;
+        this.minesPlaced = minesPlaced;
+        this.remaining = remaining;
+        this.flags = flags;
+        this.exploded = exploded;
+        generation = GENERATIONS.incrementAndGet();
+        Arrays.fill(dirtyPages, 0L);
+        minesDirty = false;
+    }
+
+    private void ensurePage(int cell) {
+        if (pageSource != null) {
+            loadPage(cell >>> PAGE_SHIFT);
+        }
+    }
+
+    private void loadPage(int page) {
+        if (!testBit(pendingPages, page)) {
+            return;
+        }
+        pendingPages[page >>> 6] &= ~(1L << page);
+        int words = mines.length;
+        int from = page << (PAGE_SHIFT - 6);
+        int length = Math.min(1 << (PAGE_SHIFT - 6), words - from);
+        pageSource.get(words + from, revealed, from, length);
+        pageSource.get(2 * words + from, flagged, from, length);
+        // 这一页格子的相邻地雷数要看到上下各一行，先把这个范围的地雷位拷进来
+        int first = page << PAGE_SHIFT;
+        int last = Math.min(cellCount, first + (1 << PAGE_SHIFT)) - 1;
+        int low = Math.max(0, first - cols - 1);
+        int high = Math.min(cellCount - 1, last + cols + 1);
+        for (int p = low >>> PAGE_SHIFT; p <= high >>> PAGE_SHIFT; p++) {
+            loadMines(p);
+        }
+        computeAdjacency(low, high, first, last);
+        if (--pendingCount == 0) {
+            pageSource = null;
+            pendingPages = null;
+            pendingMinePages = null;
+        }
+    }
+
+    private void loadMines(int page) {
+        if (!testBit(pendingMinePages, page)) {
+            return;
+        }
+        pendingMinePages[page >>> 6] &= ~(1L << page);
+        int from = page << (PAGE_SHIFT - 6);
+        pageSource.get(from, mines, from, Math.min(1 << (PAGE_SHIFT - 6), mines.length - from));
+    }
+
+    private void computeAdjacency(int low, int high, int first, int last) {
+        // 只给 [first, last] 里的格子计数：遍历 [low, high] 里的地雷，邻格落在范围里才加一
+        for (int w = low >>> 6; w <= high >>> 6; w++) {
+            long word = mines[w];
+            while (word != 0) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int row = cell / cols;
+                int col = cell - row * cols;
+                for (int i = row - 1; i <= row + 1; i++) {
+                    for (int j = col - 1; j <= col + 1; j++) {
+                        int next = i * cols + j;
+                        if ((i != row || j != col) && inBounds(i, j) && next >= first && next <= last) {
+                            incrementAdjacent(next);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // 把还没拷进来的页全部拷进来；求解器要整张扫描位图之前调用
+    void loadAllPages() {
+        for (int page = 0; pageSource != null && page < pageCount(); page++) {
+            loadPage(page);
+        }
+    }
+
+    // 读档后还有多少页没拷进来
+    int pendingPageCount() {
+        return pageSource == null ? 0 : pendingCount;
+    }
+
+    // 存档布局：地雷、已揭示、已标记三张位图依次排列，每张 mines.length 个 long
+    void writeAll(LongBuffer out) {
+        loadAllPages();
+        int words = mines.length;
+        out.put(0, mines, 0, words);
+        out.put(words, revealed, 0, words);
+        out.put(2 * words, flagged, 0, words);
+    }
+
+    void writeMines(LongBuffer out) {
+        loadAllPages();
+        out.put(0, mines, 0, mines.length);
+    }
+
+    // 把一页的已揭示、已标记位写回存档；脏页一定已经拷进来过
+    void writePage(LongBuffer out, int page) {
+        int words = mines.length;
+        int from = page << (PAGE_SHIFT - 6);
+        int length = Math.min(1 << (PAGE_SHIFT - 6), words - from);
+        out.put(words + from, revealed, from, length);
+        out.put(2 * words + from, flagged, from, length);
+    }
+
+    int pageCount() {
+        return (int) (((long) cellCount + (1 << PAGE_SHIFT) - 1) >>> PAGE_SHIFT);
+    }
+
+    long[] dirtyPages() {
+        return dirtyPages;
+    }
+
+    boolean isMinesDirty() {
+        return minesDirty;
+    }
+
+    void clearDirty() {
+        Arrays.fill(dirtyPages, 0L);
+        minesDirty = false;
+    }
+
+    private void markDirty(int cell) {
+        int page = cell >>> PAGE_SHIFT;
+        dirtyPages[page >>> 6] |= 1L << page;
+    }
+
+    private void markAllDirty() {
+        Arrays.fill(dirtyPages, -1L);
+        minesDirty = true;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    long[] revealedBits() {
+        loadAllPages();
+        return revealed;
+    }
+
+    long[] flaggedBits() {
+        loadAllPages();
+        return flagged;
+    }
+
+    int adjacentAt(int cell) {
+        ensurePage(cell);
+        return (adjacent[cell >>> 1] >>> ((cell & 1) << 2)) & 0xF;
+    }
+
+    private void incrementAdjacent(int cell) {
+        adjacent[cell >>> 1] += (byte) (1 << ((cell & 1) << 2));
+    }
+
+    static boolean testBit(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    static void setBit(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+}
@@ -0,0 +1,189 @@
+package games.minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 扫雷存档：整个文件用内存映射打开，64 字节头部（尺寸、种子、计数器）后面紧跟地雷、已揭示、已标记三张位图。
+// 读档只读头部，位图由引擎在某一页第一次被访问时从映射里拷进去；自动存档只拷引擎记下的脏页，写盘交给操作系统。
+// 每次存档先把头部的开始代号加一，写完位图和计数器再把提交代号写成同一个值；
+// 两个代号不相等说明存档写到一半进程就没了，读档时拒绝
+public class MinesweeperSave implements Closeable {
+    private static final int HEADER_MAGIC = 0x4D494E53; // "MINS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    static final int BEGIN_OFFSET = 40; // 开始代号
+    private static final int COMMIT_OFFSET = 48; // 提交代号
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final LongBuffer longs; // 头部之后的三张位图
+    private final MinesweeperEngine engine;
+    private long generation; // 最近一次完整写入的代号
+
+    private MinesweeperSave(Path file, FileChannel channel, MappedByteBuffer buffer, MinesweeperEngine engine) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.engine = engine;
+        buffer.order(ByteOrder.LITTLE_ENDIAN); // 固定字节序，存档可以跨平台
+        this.longs = buffer.position(HEADER_SIZE).slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        buffer.clear();
+    }
+
+    // 为引擎新建（或覆盖）存档，并立刻写入完整棋盘
+    public static MinesweeperSave create(Path file, MinesweeperEngine engine) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(engine.getCellCount()));
+            MinesweeperSave save = new MinesweeperSave(file, channel, buffer, engine);
+            save.writeAll();
+            buffer.force(); // 新文件的标识写在最后，没写完的文件读档时会被拒绝
+            return save;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 打开已有存档并恢复出引擎；存档不存在时返回 null
+    public static MinesweeperSave resume(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a minesweeper save: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != HEADER_MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a minesweeper save: " + file);
+            }
+            int rows = buffer.getInt(8);
+            int cols = buffer.getInt(12);
+            int mineCount = buffer.getInt(16);
+            MinesweeperEngine engine = new MinesweeperEngine(rows, cols, mineCount);
+            if (size != fileSize(engine.getCellCount())) {
+                throw new IOException("Truncated minesweeper save: " + file);
+            }
+            long generation = buffer.getLong(COMMIT_OFFSET);
+            if (buffer.getLong(BEGIN_OFFSET) != generation) {
+                throw new IOException("Incomplete minesweeper save: " + file);
+            }
+            MinesweeperSave save = new MinesweeperSave(file, channel, buffer, engine);
+            save.generation = generation;
+            engine.restore(save.longs, buffer.getLong(32), buffer.get(29) != 0,
+                    buffer.getInt(20), buffer.getInt(24), buffer.get(28) != 0);
+            return save;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+            // 头部里的尺寸或地雷数不合法
+            closeQuietly(channel);
+            throw new UncheckedIOException(new IOException("Corrupt minesweeper save: " + file, e));
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public MinesweeperEngine getEngine() {
+        return engine;
+    }
+
+    // 把上次存档之后改动过的页写进映射，返回写入的页数；头部每次都写
+    public int flushDirty() {
+        buffer.putLong(BEGIN_OFFSET, generation + 1);
+        if (engine.isMinesDirty()) {
+            engine.writeMines(longs);
+        }
+        long[] dirty = engine.dirtyPages();
+        int pages = engine.pageCount();
+        int written = 0;
+        for (int w = 0; w < dirty.length; w++) {
+            long bits = dirty[w];
+            while (bits != 0) {
+                int page = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (page >= pages) {
+                    break;
+                }
+                engine.writePage(longs, page);
+                written++;
+            }
+        }
+        engine.clearDirty();
+        writeHeader();
+        commit();
+        return written;
+    }
+
+    // 写回脏页并让操作系统落盘
+    public void sync() {
+        flushDirty();
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        sync();
+        closeQuietly(channel);
+    }
+
+    private void writeAll() {
+        buffer.putLong(BEGIN_OFFSET, generation + 1);
+        engine.writeAll(longs);
+        engine.clearDirty();
+        writeHeader();
+        buffer.putInt(4, VERSION);
+        buffer.putInt(0, HEADER_MAGIC);
+        commit();
+    }
+
+    private void commit() {
+        generation++;
+        buffer.putLong(COMMIT_OFFSET, generation);
+    }
+
+    private void writeHeader() {
+        buffer.putInt(8, engine.getRows());
+        buffer.putInt(12, engine.getCols());
+        buffer.putInt(16, engine.getMineCount());
+        buffer.putInt(20, engine.getRemaining());
+        buffer.putInt(24, engine.getFlagCount());
+        buffer.put(28, (byte) (engine.isExploded() ? 1 : 0));
+        buffer.put(29, (byte) (engine.areMinesPlaced() ? 1 : 0));
+        buffer.putLong(32, engine.getSeed());
+    }
+
+    private static long fileSize(int cellCount) {
+        return HEADER_SIZE + 3L * 8 * ((cellCount + 63) >>> 6);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 映射已经写过了，关闭失败不影响存档内容
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package games.minesweeper;
+
+import games.core.SplitMix64;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// 无界面的批量对局：所有 CPU 核心上连续跑大量扫雷对局（求解器自动下），统计胜率、吞吐和单局耗时分位数
+public class MinesweeperSimulation {
+    private static final int BATCH = 256; // 每个线程一次领取的对局数
+    // 每一步求解的工作量预算（每个连通块最多搜索的节点数）。不用时间预算：
+    // 线程多了每局变慢，同一局可能这次枚举完、下次没枚举完，胜局数就跟着线程数变
+    private static final long MOVE_NODE_BUDGET = 1L << 22;
+
+    private final int rows;
+    private final int cols;
+    private final int mines;
+    private final long seed;
+    private final int threads;
+
+    public MinesweeperSimulation(int rows, int cols, int mines, long seed, int threads) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    // 汇总结果
+    public static class Report {
+        private final long games;
+        private final long wins;
+        private final long elapsedNanos;
+        private final LatencyHistogram latency;
+
+        Report(long games, long wins, long elapsedNanos, LatencyHistogram latency) {
+            this.games = games;
+            this.wins = wins;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        public double getGamesPerSecond() {
+            return games * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        public long latencyPercentile(double percentile) {
+            return latency.percentile(percentile);
+        }
+
+        public long getMaxLatency() {
+            return latency.max();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("games=%d wins=%d winRate=%.2f%% games/s=%.0f latency(us) p50=%.1f p90=%.1f p99=%.1f p999=%.1f max=%.1f",
+                    games, wins, getWinRate() * 100, getGamesPerSecond(),
+                    latencyPercentile(50) / 1e3, latencyPercentile(90) / 1e3, latencyPercentile(99) / 1e3,
+                    latencyPercentile(99.9) / 1e3, getMaxLatency() / 1e3);
+        }
+    }
+
+    public Report run(long games) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        Worker[] workers = new Worker[threads];
+        Thread[] pool = new Thread[threads];
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(next, games);
+            pool[i] = new Thread(workers[i], "minesweeper-sim-" + i);
+            pool[i].start();
+        }
+        long wins = 0;
+        LatencyHistogram latency = new LatencyHistogram();
+        for (int i = 0; i < threads; i++) {
+            pool[i].join();
+            wins += workers[i].wins;
+            latency.add(workers[i].latency);
+        }
+        return new Report(games, wins, System.nanoTime() - start, latency);
+    }
+
+    // 用求解器下完一局：第一下点中间（布雷时避开），之后先把所有确定安全的格子揭开，没有安全格子时按提示猜
+    public static boolean play(MinesweeperEngine engine, MinesweeperSolver solver, MinesweeperEngine.Delta delta, long seed) {
+        int firstRow = engine.getRows() / 2;
+        int firstCol = engine.getCols() / 2;
+        engine.placeMines(seed, firstRow, firstCol);
+        engine.revealCascade(firstRow, firstCol, delta);
+        while (!engine.isGameOver()) {
+            MinesweeperSolver.Result result = solver.solveNodes(engine, MOVE_NODE_BUDGET);
+            boolean progressed = false;
+            for (int i = 0; i < result.size() && !engine.isGameOver(); i++) {
+                if (result.probability(i) == 0f) {
+                    int cell = result.cell(i);
+                    progressed |= engine.revealCascade(cell / engine.getCols(), cell % engine.getCols(), delta) > 0;
+                }
+            }
+            if (!progressed && !engine.isGameOver()) {
+                if (!result.hasHint()) {
+                    break;
+                }
+                engine.revealCascade(result.getHintRow(), result.getHintCol(), delta);
+            }
+        }
+        return engine.isWon();
+    }
+
+    private class Worker implements Runnable {
+        private final AtomicLong next;
+        private final long games;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long wins;
+
+        Worker(AtomicLong next, long games) {
+            this.next = next;
+            this.games = games;
+        }
+
+        @Override
+        public void run() {
+            // 每个线程复用自己的引擎、求解器和 delta，求解器串行枚举，避免和其他线程争抢
+            MinesweeperEngine engine = new MinesweeperEngine(rows, cols, mines);
+            MinesweeperSolver solver = new MinesweeperSolver(null);
+            MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+            while (true) {
+                long from = next.getAndAdd(BATCH);
+                if (from >= games) {
+                    return;
+                }
+                long to = Math.min(games, from + BATCH);
+                for (long index = from; index < to; index++) {
+                    long begin = System.nanoTime();
+                    if (play(engine, solver, delta, SplitMix64.gameSeed(seed, index))) {
+                        wins++;
+                    }
+                    latency.record(System.nanoTime() - begin);
+                }
+            }
+        }
+    }
+
+    // 对数分桶的耗时直方图：每个2的幂区间再分16格，记录百万级样本也只占几KB
+    static class LatencyHistogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private final long[] counts = new long[64 * SUB_COUNT];
+        private long total;
+        private long max;
+
+        void record(long nanos) {
+            counts[bucket(Math.max(0, nanos))]++;
+            total++;
+            max = Math.max(max, nanos);
+        }
+
+        void add(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            total += other.total;
+            max = Math.max(max, other.max);
+        }
+
+        long percentile(double percentile) {
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        long max() {
+            return max;
+        }
+
+        private static int bucket(long value) {
+            if (value < SUB_COUNT) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+            return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_COUNT) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+            long sub = bucket % SUB_COUNT;
+            return ((SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // 参数：[对局数 行数 列数 地雷数 种子 线程数]，默认初级棋盘 9x9/10 跑一百万局
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        int cols = args.length > 2 ? Integer.parseInt(args[2]) : 9;
+        int mines = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("Minesweeper simulation: %d games, %dx%d, %d mines, seed %d, %d threads%n",
+                games, rows, cols, mines, seed, threads);
+        MinesweeperSimulation simulation = new MinesweeperSimulation(rows, cols, mines, seed, threads);
+        Report report = simulation.run(games);
+        System.out.println(report);
+    }
+}
@@ -0,0 +1,925 @@
+package games.minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// 扫雷求解器：先对数字边界做确定性约束传播，再把剩下的边界拆成互不相关的连通块，
+// 在 fork-join 线程池上并行枚举，得到每个格子是地雷的概率，并给出安全步或最优猜测
+public class MinesweeperSolver {
+    private static final int MAX_EXACT_VARS = 60; // 连通块超过这么多未知格子就不精确枚举
+    private static final int SPLIT_VARS = 16; // 连通块超过这么多未知格子就拆成多个子任务
+    private static final int MAX_EXACT_COMBINE_VARS = 512; // 边界总变量数不超过它时精确合成概率
+    private static final int MAX_SPLIT_BITS = 6; // 最多拆成 2^6 个子任务
+    private static final int DEADLINE_CHECK_MASK = 4095; // 每搜索这么多个节点检查一次时间
+
+    private static final int UNKNOWN = -1;
+    private static final int SAFE = 0;
+    private static final int MINE = 1;
+
+    private final ForkJoinPool pool; // null 表示在调用线程上串行枚举
+
+    // 边界变量：与已揭示数字相邻的未揭示格子
+    private int[] varCell = new int[256];
+    private int[] varState = new int[256];
+    private int varCount;
+    private final IntIndex varIndex = new IntIndex();
+
+    // 约束：每个数字格子一条，最多8个变量
+    private int[] consTarget = new int[256];
+    private int[] consVars = new int[256 * 8];
+    private int[] consSize = new int[256];
+    private int consCount;
+
+    // 变量到约束的反向索引（CSR）
+    private int[] varConsStart = new int[257];
+    private int[] varCons = new int[256 * 8];
+
+    // 跨调用缓存的边界：同一局里揭示只增不减，每次只把新揭示的格子加进来，
+    // 不再有未揭示邻居的格子移出去，不用每步都扫一遍所有已揭示格子
+    // 上次求解的引擎代号，变了就从头建；代号全局唯一，不用留着引擎本身，旧局面能及时回收
+    private long lastGeneration;
+    private long[] seen = new long[0]; // 上次求解时的已揭示位图
+    private long[] boundary = new long[0]; // 带数字、上次求解时还有未揭示邻居的已揭示格子
+
+    public MinesweeperSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public MinesweeperSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // 求解结果：边界格子的地雷概率（按格子编号排序稀疏存放）、其余未揭示格子的统一概率，以及提示
+    public static class Result {
+        private final int[] cells;
+        private final float[] probabilities;
+        private final float interiorProbability;
+        private final int hintCell;
+        private final float hintProbability;
+        private final boolean complete;
+        private final int cols;
+
+        Result(int[] cells, float[] probabilities, float interiorProbability,
+               int hintCell, float hintProbability, boolean complete, int cols) {
+            this.cells = cells;
+            this.probabilities = probabilities;
+            this.interiorProbability = interiorProbability;
+            this.hintCell = hintCell;
+            this.hintProbability = hintProbability;
+            this.complete = complete;
+            this.cols = cols;
+        }
+
+        public int size() {
+            return cells.length;
+        }
+
+        public int cell(int i) {
+            return cells[i];
+        }
+
+        public float probability(int i) {
+            return probabilities[i];
+        }
+
+        // 第一个编号不小于 cell 的边界格子的下标，没有时返回 size()；界面按行只取视口里的那一段
+        public int indexAtOrAfter(int cell) {
+            int index = Arrays.binarySearch(cells, cell);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        public float getInteriorProbability() {
+            return interiorProbability;
+        }
+
+        public boolean hasHint() {
+            return hintCell >= 0;
+        }
+
+        public int getHintRow() {
+            return hintCell / cols;
+        }
+
+        public int getHintCol() {
+            return hintCell % cols;
+        }
+
+        public float getHintProbability() {
+            return hintProbability;
+        }
+
+        public boolean isHintSafe() {
+            return hintProbability == 0f;
+        }
+
+        // 是否所有连通块都在预算内精确枚举完
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    // 按时间预算求解，给界面上的提示用；结果和机器快慢、线程调度有关
+    public Result solve(MinesweeperEngine engine, long budgetNanos) {
+        return solve(engine, System.nanoTime() + budgetNanos, Long.MAX_VALUE);
+    }
+
+    // 按工作量预算求解：每个枚举任务最多搜索 maxNodes 个节点，不看时钟，
+    // 同一个局面的结果与机器快慢和线程数无关，批量模拟和测试用它
+    public Result solveNodes(MinesweeperEngine engine, long maxNodes) {
+        return solve(engine, Long.MAX_VALUE, maxNodes);
+    }
+
+    private Result solve(MinesweeperEngine engine, long deadline, long maxNodes) {
+        if (engine.isGameOver()) {
+            return new Result(new int[0], new float[0], 0f, -1, 1f, true, engine.getCols());
+        }
+
+        buildFrontier(engine);
+        int decidedMines = propagate();
+
+        // 剩余地雷和不在边界上的未揭示格子
+        int unrevealed = engine.getMineCount() + engine.getRemaining();
+        int interior = unrevealed - varCount;
+        int minesLeft = engine.getMineCount() - decidedMines;
+
+        List<Component> components = buildComponents();
+        boolean complete = enumerate(components, deadline, maxNodes);
+
+        float[] probability = new float[varCount];
+        double interiorDensity = combine(components, probability, minesLeft, interior);
+        for (int v = 0; v < varCount; v++) {
+            if (varState[v] != UNKNOWN) {
+                probability[v] = varState[v];
+            }
+        }
+        return buildResult(engine, probability, (float) interiorDensity, interior, complete);
+    }
+
+    private void buildFrontier(MinesweeperEngine engine) {
+        // 收集带数字且还有未揭示邻居的格子：只看缓存的边界加上自上次以来新揭示的格子
+        varIndex.clear();
+        varCount = 0;
+        consCount = 0;
+        int rows = engine.getRows();
+        int cols = engine.getCols();
+        long[] revealed = engine.revealedBits();
+        if (engine.generation() != lastGeneration || seen.length != revealed.length) {
+            lastGeneration = engine.generation();
+            seen = new long[revealed.length];
+            boundary = new long[revealed.length];
+        }
+        for (int w = 0; w < revealed.length; w++) {
+            long added = revealed[w] & ~seen[w];
+            seen[w] |= added;
+            boundary[w] |= added;
+        }
+        for (int w = 0; w < boundary.length; w++) {
+            long word = boundary[w];
+            while (word != 0) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int count = engine.adjacentAt(cell);
+                if (count == 0) {
+                    boundary[w] &= ~(1L << cell);
+                    continue;
+                }
+                int row = cell / cols;
+                int col = cell - row * cols;
+                int base = consCount * 8;
+                if (consCount == consTarget.length) {
+                    consTarget = Arrays.copyOf(consTarget, consCount << 1);
+                    consSize = Arrays.copyOf(consSize, consCount << 1);
+                    consVars = Arrays.copyOf(consVars, consCount << 4);
+                }
+                int size = 0;
+                for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                    for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                        int next = i * cols + j;
+                        if (!MinesweeperEngine.testBit(revealed, next)) {
+                            consVars[base + size++] = variableFor(next);
+                        }
+                    }
+                }
+                if (size > 0) {
+                    consTarget[consCount] = count;
+                    consSize[consCount] = size;
+                    consCount++;
+                } else {
+                    boundary[w] &= ~(1L << cell);
+                }
+            }
+        }
+
+        // 建立变量到约束的反向索引
+        if (varConsStart.length < varCount + 1) {
+            varConsStart = new int[varCount + 1];
+        }
+        Arrays.fill(varConsStart, 0, varCount + 1, 0);
+        int total = 0;
+        for (int c = 0; c < consCount; c++) {
+            total += consSize[c];
+            for (int k = 0; k < consSize[c]; k++) {
+                varConsStart[consVars[c * 8 + k] + 1]++;
+            }
+        }
+        for (int v = 0; v < varCount; v++) {
+            varConsStart[v + 1] += varConsStart[v];
+        }
+        if (varCons.length < total) {
+            varCons = new int[total];
+        }
+        int[] fill = Arrays.copyOf(varConsStart, varCount);
+        for (int c = 0; c < consCount; c++) {
+            for (int k = 0; k < consSize[c]; k++) {
+                varCons[fill[consVars[c * 8 + k]]++] = c;
+            }
+        }
+    }
+
+    private int variableFor(int cell) {
+        int v = varIndex.get(cell);
+        if (v >= 0) {
+            return v;
+        }
+        if (varCount == varCell.length) {
+            varCell = Arrays.copyOf(varCell, varCount << 1);
+            varState = Arrays.copyOf(varState, varCount << 1);
+        }
+        v = varCount++;
+        varCell[v] = cell;
+        varState[v] = UNKNOWN;
+        varIndex.put(cell, v);
+        return v;
+    }
+
+    private int propagate() {
+        // 单约束推理：剩余地雷数为0则其余全安全，等于未知格子数则全是地雷；直到不再变化
+        int[] queue = new int[Math.max(consCount, 1)];
+        boolean[] queued = new boolean[consCount];
+        int head = 0;
+        int size = 0;
+        for (int c = 0; c < consCount; c++) {
+            queue[size++] = c;
+            queued[c] = true;
+        }
+        int decidedMines = 0;
+        while (size > 0) {
+            int c = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[c] = false;
+
+            int mines = 0;
+            int unknown = 0;
+            for (int k = 0; k < consSize[c]; k++) {
+                int state = varState[consVars[c * 8 + k]];
+                if (state == MINE) {
+                    mines++;
+                } else if (state == UNKNOWN) {
+                    unknown++;
+                }
+            }
+            int need = consTarget[c] - mines;
+            if (unknown == 0 || (need != 0 && need != unknown)) {
+                continue;
+            }
+            int value = need == 0 ? SAFE : MINE;
+            for (int k = 0; k < consSize[c]; k++) {
+                int v = consVars[c * 8 + k];
+                if (varState[v] != UNKNOWN) {
+                    continue;
+                }
+                varState[v] = value;
+                if (value == MINE) {
+                    decidedMines++;
+                }
+                for (int i = varConsStart[v]; i < varConsStart[v + 1]; i++) {
+                    int other = varCons[i];
+                    if (!queued[other]) {
+                        queued[other] = true;
+                        queue[(head + size) % queue.length] = other;
+                        size++;
+                    }
+                }
+            }
+        }
+        return decidedMines;
+    }
+
+    private List<Component> buildComponents() {
+        // 用并查集把共享约束的未知变量连起来
+        int[] parent = new int[varCount];
+        for (int v = 0; v < varCount; v++) {
+            parent[v] = v;
+        }
+        for (int c = 0; c < consCount; c++) {
+            int first = -1;
+            for (int k = 0; k < consSize[c]; k++) {
+                int v = consVars[c * 8 + k];
+                if (varState[v] != UNKNOWN) {
+                    continue;
+                }
+                if (first < 0) {
+                    first = v;
+                } else {
+                    int a = find(parent, first);
+                    int b = find(parent, v);
+                    if (a != b) {
+                        parent[a] = b;
+                    }
+                }
+            }
+        }
+
+        // 按约束的扫描顺序给变量编号，空间上相邻的变量排在一起，剪枝更早生效
+        int[] componentOf = new int[varCount];
+        Arrays.fill(componentOf, -1);
+        int[] local = new int[varCount];
+        List<Component> components = new ArrayList<>();
+        int[] rootIndex = new int[varCount];
+        Arrays.fill(rootIndex, -1);
+        for (int c = 0; c < consCount; c++) {
+            for (int k = 0; k < consSize[c]; k++) {
+                int v = consVars[c * 8 + k];
+                if (varState[v] != UNKNOWN || componentOf[v] >= 0) {
+                    continue;
+                }
+                int root = find(parent, v);
+                if (rootIndex[root] < 0) {
+                    rootIndex[root] = components.size();
+                    components.add(new Component());
+                }
+                Component comp = components.get(rootIndex[root]);
+                componentOf[v] = rootIndex[root];
+                local[v] = comp.addVar(v);
+            }
+        }
+
+        // 把约束分配给所属连通块，目标值扣掉已确定的地雷
+        int[] vars = new int[8];
+        for (int c = 0; c < consCount; c++) {
+            int comp = -1;
+            int mines = 0;
+            int size = 0;
+            for (int k = 0; k < consSize[c]; k++) {
+                int v = consVars[c * 8 + k];
+                if (varState[v] == MINE) {
+                    mines++;
+                } else if (varState[v] == UNKNOWN) {
+                    comp = componentOf[v];
+                    vars[size++] = local[v];
+                }
+            }
+            if (comp >= 0) {
+                components.get(comp).addConstraint(consTarget[c] - mines, vars, size);
+            }
+        }
+        for (Component comp : components) {
+            comp.finish();
+        }
+        return components;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private boolean enumerate(List<Component> components, long deadline, long maxNodes) {
+        // 每个连通块生成一个或多个枚举任务（大的连通块按前几个变量的取值拆分）
+        List<Enumeration> tasks = new ArrayList<>();
+        for (Component comp : components) {
+            if (comp.size > MAX_EXACT_VARS) {
+                comp.exact = false;
+                continue;
+            }
+            int bits = Math.min(MAX_SPLIT_BITS, Math.max(0, comp.size - SPLIT_VARS));
+            if (pool == null) {
+                bits = 0;
+            }
+            comp.tasks = new Enumeration[1 << bits];
+            for (int prefix = 0; prefix < comp.tasks.length; prefix++) {
+                Enumeration task = new Enumeration(comp, prefix, bits, deadline, maxNodes);
+                comp.tasks[prefix] = task;
+                tasks.add(task);
+            }
+        }
+
+        if (pool == null) {
+            for (Enumeration task : tasks) {
+                task.compute();
+            }
+        } else if (!tasks.isEmpty()) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+        }
+
+        boolean complete = true;
+        for (Component comp : components) {
+            if (comp.tasks == null) {
+                complete = false;
+                continue;
+            }
+            comp.solutions = new double[comp.size + 1];
+            comp.cellCounts = new double[(comp.size + 1) * comp.size];
+            for (Enumeration task : comp.tasks) {
+                if (task.aborted) {
+                    comp.exact = false;
+                }
+                for (int i = 0; i < comp.solutions.length; i++) {
+                    comp.solutions[i] += task.solutions[i];
+                }
+                for (int i = 0; i < comp.cellCounts.length; i++) {
+                    comp.cellCounts[i] += task.cellCounts[i];
+                }
+            }
+            comp.tasks = null;
+            complete &= comp.exact;
+        }
+        return complete;
+    }
+
+    private double combine(List<Component> components, float[] probability, int minesLeft, int interior) {
+        // 把各连通块的解按地雷数加权合成概率。
+        // 边界不大时精确计算：连通块取 k 个地雷的权重 = 解数(k) * Σ 其余连通块取 j 个的方案数 * C(内部格子数, 剩余 - k - j)；
+        // 边界很大时近似：权重 = 解数(k) * (ρ/(1-ρ))^k，ρ 是内部密度，用二分法解 ρ*内部格子数 + 边界期望地雷数 = 剩余地雷
+        int frontier = 0;
+        boolean allExact = true;
+        for (Component comp : components) {
+            frontier += comp.size;
+            allExact &= comp.exact;
+        }
+
+        double density;
+        if (allExact && frontier <= MAX_EXACT_COMBINE_VARS) {
+            density = exactWeights(components, minesLeft, interior);
+        } else {
+            density = solveDensity(components, minesLeft, interior, frontier);
+        }
+
+        for (Component comp : components) {
+            for (int i = 0; i < comp.size; i++) {
+                probability[comp.vars[i]] = (float) comp.probability(i);
+            }
+        }
+        return interior > 0 ? density : 0;
+    }
+
+    private static double solveDensity(List<Component> components, int minesLeft, int interior, int frontier) {
+        // 边界期望地雷数随 ρ 单调递增，所以二分收敛
+        if (interior == 0) {
+            applyOdds(components, clamp((double) minesLeft / Math.max(1, frontier)));
+            return 0;
+        }
+        double low = 0;
+        double high = 1;
+        for (int iteration = 0; iteration < 32; iteration++) {
+            double mid = (low + high) / 2;
+            double expected = applyOdds(components, clamp(mid));
+            if (mid * interior + expected > minesLeft) {
+                high = mid;
+            } else {
+                low = mid;
+            }
+        }
+        double density = (low + high) / 2;
+        applyOdds(components, clamp(density));
+        return density;
+    }
+
+    private static double applyOdds(List<Component> components, double density) {
+        double logOdds = Math.log(density / (1 - density));
+        double expected = 0;
+        for (Component comp : components) {
+            if (comp.exact) {
+                comp.weights = oddsWeights(comp.solutions, logOdds);
+            }
+            expected += expectedMines(comp);
+        }
+        return expected;
+    }
+
+    private static double expectedMines(Component comp) {
+        double expected = 0;
+        for (int i = 0; i < comp.size; i++) {
+            expected += comp.probability(i);
+        }
+        return expected;
+    }
+
+    private static double[] oddsWeights(double[] solutions, double logOdds) {
+        // 在对数空间计算再减去最大值，避免上溢/下溢
+        double[] weights = new double[solutions.length];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < solutions.length; k++) {
+            if (solutions[k] > 0) {
+                weights[k] = Math.log(solutions[k]) + k * logOdds;
+                max = Math.max(max, weights[k]);
+            }
+        }
+        for (int k = 0; k < solutions.length; k++) {
+            weights[k] = solutions[k] > 0 ? Math.exp(weights[k] - max) : 0;
+        }
+        return weights;
+    }
+
+    private static double exactWeights(List<Component> components, int minesLeft, int interior) {
+        // 前缀/后缀卷积得到“除连通块 c 以外”的地雷数分布，再乘上内部格子的组合数
+        int n = components.size();
+        double[][] prefix = new double[n + 1][];
+        double[][] suffix = new double[n + 1][];
+        prefix[0] = new double[]{1};
+        suffix[n] = new double[]{1};
+        for (int i = 0; i < n; i++) {
+            prefix[i + 1] = normalize(convolve(prefix[i], components.get(i).solutions));
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            suffix[i] = normalize(convolve(suffix[i + 1], components.get(i).solutions));
+        }
+
+        // binomial[j] ∝ C(interior, minesLeft - j)，j 是边界上的地雷总数；在对数空间递推后归一化
+        int maxK = prefix[n].length - 1;
+        double[] binomial = new double[maxK + 1];
+        Arrays.fill(binomial, Double.NEGATIVE_INFINITY);
+        int low = Math.max(0, minesLeft - maxK);
+        int high = Math.min(interior, minesLeft);
+        double log = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int m = low; m <= high; m++) {
+            if (m > low) {
+                log += Math.log(interior - m + 1) - Math.log(m);
+            }
+            binomial[minesLeft - m] = log;
+            max = Math.max(max, log);
+        }
+        for (int j = 0; j <= maxK; j++) {
+            binomial[j] = Math.exp(binomial[j] - max);
+        }
+
+        for (int i = 0; i < n; i++) {
+            Component comp = components.get(i);
+            double[] others = convolve(prefix[i], suffix[i + 1]);
+            comp.weights = new double[comp.solutions.length];
+            for (int k = 0; k < comp.solutions.length; k++) {
+                double weight = 0;
+                for (int j = 0; j < others.length && k + j <= maxK; j++) {
+                    weight += others[j] * binomial[k + j];
+                }
+                comp.weights[k] = weight;
+            }
+        }
+
+        if (interior == 0) {
+            return 0;
+        }
+        double total = 0;
+        double expected = 0;
+        for (int k = 0; k <= maxK; k++) {
+            double weight = prefix[n][k] * binomial[k];
+            total += weight;
+            expected += weight * (minesLeft - k);
+        }
+        return total > 0 ? expected / total / interior : (double) minesLeft / interior;
+    }
+
+    private static double[] convolve(double[] a, double[] b) {
+        double[] out = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                out[i + j] += a[i] * b[j];
+            }
+        }
+        return out;
+    }
+
+    private static double[] normalize(double[] values) {
+        double max = 0;
+        for (double v : values) {
+            max = Math.max(max, v);
+        }
+        if (max > 0) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] /= max;
+            }
+        }
+        return values;
+    }
+
+    private static double clamp(double density) {
+        return Math.max(1e-9, Math.min(1 - 1e-9, density));
+    }
+
+    private Result buildResult(MinesweeperEngine engine, float[] probability, float interiorDensity,
+                               int interior, boolean complete) {
+        long[] flagged = engine.flaggedBits();
+        int best = -1;
+        float bestProbability = 2f;
+        for (int v = 0; v < varCount; v++) {
+            if (!MinesweeperEngine.testBit(flagged, varCell[v]) && probability[v] < bestProbability) {
+                best = varCell[v];
+                bestProbability = probability[v];
+            }
+        }
+        if (interior > 0 && (best < 0 || interiorDensity < bestProbability)) {
+            int cell = firstInteriorCell(engine);
+            if (cell >= 0) {
+                best = cell;
+                bestProbability = interiorDensity;
+            }
+        }
+        // 按格子编号排序：格子编号放高 32 位，概率的位模式放低 32 位，一次排序两个数组一起排好
+        long[] packed = new long[varCount];
+        for (int v = 0; v < varCount; v++) {
+            packed[v] = (long) varCell[v] << 32 | (Float.floatToRawIntBits(probability[v]) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        int[] cells = new int[varCount];
+        float[] sorted = new float[varCount];
+        for (int v = 0; v < varCount; v++) {
+            cells[v] = (int) (packed[v] >>> 32);
+            sorted[v] = Float.intBitsToFloat((int) packed[v]);
+        }
+        return new Result(cells, sorted, interiorDensity, best, bestProbability, complete, engine.getCols());
+    }
+
+    private int firstInteriorCell(MinesweeperEngine engine) {
+        // 还没揭示任何格子时从中间开始，否则找第一个不在边界上的未揭示格子
+        long[] revealed = engine.revealedBits();
+        long[] flagged = engine.flaggedBits();
+        if (varCount == 0 && engine.getRemaining() + engine.getMineCount() == engine.getCellCount()) {
+            return engine.index(engine.getRows() / 2, engine.getCols() / 2);
+        }
+        int cellCount = engine.getCellCount();
+        for (int w = 0; w < revealed.length; w++) {
+            long word = ~(revealed[w] | flagged[w]);
+            while (word != 0) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (cell >= cellCount) {
+                    return -1;
+                }
+                if (varIndex.get(cell) < 0) {
+                    return cell;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // 一个连通块：局部变量编号、约束和枚举结果
+    private static class Component {
+        int size;
+        int[] vars = new int[8]; // 局部编号 -> 全局变量编号
+        int consCount;
+        int[] target = new int[8];
+        int[] consVarStart = new int[9];
+        int[] consVarList = new int[64];
+        int[] varConsStart; // 局部变量 -> 约束（CSR）
+        int[] varConsList;
+
+        boolean exact = true;
+        Enumeration[] tasks;
+        double[] solutions; // solutions[k]：正好 k 个地雷的解数
+        double[] cellCounts; // cellCounts[k * size + i]：k 个地雷的解里变量 i 是地雷的次数
+        double[] weights; // 每个 k 的权重
+
+        int addVar(int globalVar) {
+            if (size == vars.length) {
+                vars = Arrays.copyOf(vars, size << 1);
+            }
+            vars[size] = globalVar;
+            return size++;
+        }
+
+        void addConstraint(int need, int[] localVars, int count) {
+            if (consCount == target.length) {
+                target = Arrays.copyOf(target, consCount << 1);
+                consVarStart = Arrays.copyOf(consVarStart, (consCount << 1) + 1);
+            }
+            int start = consVarStart[consCount];
+            if (start + count > consVarList.length) {
+                consVarList = Arrays.copyOf(consVarList, Math.max(consVarList.length << 1, start + count));
+            }
+            System.arraycopy(localVars, 0, consVarList, start, count);
+            target[consCount] = need;
+            consVarStart[consCount + 1] = start + count;
+            consCount++;
+        }
+
+        void finish() {
+            varConsStart = new int[size + 1];
+            int total = consVarStart[consCount];
+            for (int i = 0; i < total; i++) {
+                varConsStart[consVarList[i] + 1]++;
+            }
+            for (int v = 0; v < size; v++) {
+                varConsStart[v + 1] += varConsStart[v];
+            }
+            varConsList = new int[total];
+            int[] fill = Arrays.copyOf(varConsStart, size);
+            for (int c = 0; c < consCount; c++) {
+                for (int i = consVarStart[c]; i < consVarStart[c + 1]; i++) {
+                    varConsList[fill[consVarList[i]]++] = c;
+                }
+            }
+        }
+
+        double probability(int i) {
+            if (!exact || weights == null) {
+                return localEstimate(i);
+            }
+            double total = 0;
+            double mine = 0;
+            for (int k = 0; k < solutions.length; k++) {
+                total += weights[k] * solutions[k];
+                mine += weights[k] * cellCounts[k * size + i];
+            }
+            return total > 0 ? mine / total : localEstimate(i);
+        }
+
+        private double localEstimate(int i) {
+            // 来不及精确枚举时，用相邻约束的平均密度估计
+            double sum = 0;
+            int count = 0;
+            for (int j = varConsStart[i]; j < varConsStart[i + 1]; j++) {
+                int c = varConsList[j];
+                int vars = consVarStart[c + 1] - consVarStart[c];
+                sum += (double) target[c] / vars;
+                count++;
+            }
+            return count > 0 ? Math.max(0, Math.min(1, sum / count)) : 0.5;
+        }
+    }
+
+    // 枚举任务：固定连通块前 prefixBits 个变量的取值，回溯枚举其余变量
+    private static class Enumeration extends RecursiveAction {
+        private final Component comp;
+        private final int prefix;
+        private final int prefixBits;
+        private final long deadline;
+        private final long maxNodes;
+
+        private final int[] assigned;
+        private final int[] consMines;
+        private final int[] consOpen;
+        private long nodes;
+        private int mines;
+        boolean aborted;
+        double[] solutions;
+        double[] cellCounts;
+
+        Enumeration(Component comp, int prefix, int prefixBits, long deadline, long maxNodes) {
+            this.comp = comp;
+            this.prefix = prefix;
+            this.prefixBits = prefixBits;
+            this.deadline = deadline;
+            this.maxNodes = maxNodes;
+            this.assigned = new int[comp.size];
+            this.consMines = new int[comp.consCount];
+            this.consOpen = new int[comp.consCount];
+        }
+
+        @Override
+        protected void compute() {
+            solutions = new double[comp.size + 1];
+            cellCounts = new double[(comp.size + 1) * comp.size];
+            for (int c = 0; c < comp.consCount; c++) {
+                consOpen[c] = comp.consVarStart[c + 1] - comp.consVarStart[c];
+            }
+            for (int v = 0; v < prefixBits; v++) {
+                if (!assign(v, (prefix >>> v) & 1)) {
+                    return;
+                }
+            }
+            search(prefixBits);
+        }
+
+        private void search(int v) {
+            if (aborted) {
+                return;
+            }
+            if (++nodes > maxNodes || ((nodes & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadline)) {
+                aborted = true;
+                return;
+            }
+            if (v == comp.size) {
+                solutions[mines]++;
+                int base = mines * comp.size;
+                for (int i = 0; i < comp.size; i++) {
+                    cellCounts[base + i] += assigned[i];
+                }
+                return;
+            }
+            for (int value = 0; value <= 1; value++) {
+                if (assign(v, value)) {
+                    search(v + 1);
+                }
+                unassign(v, value);
+            }
+        }
+
+        private boolean assign(int v, int value) {
+            // 更新相关约束，全部更新完再返回是否仍然可满足，方便 unassign 对称回滚
+            assigned[v] = value;
+            mines += value;
+            boolean ok = true;
+            for (int j = comp.varConsStart[v]; j < comp.varConsStart[v + 1]; j++) {
+                int c = comp.varConsList[j];
+                consMines[c] += value;
+                consOpen[c]--;
+                int need = comp.target[c] - consMines[c];
+                if (need < 0 || need > consOpen[c]) {
+                    ok = false;
+                }
+            }
+            return ok;
+        }
+
+        private void unassign(int v, int value) {
+            assigned[v] = 0;
+            mines -= value;
+            for (int j = comp.varConsStart[v]; j < comp.varConsStart[v + 1]; j++) {
+                int c = comp.varConsList[j];
+                consMines[c] -= value;
+                consOpen[c]++;
+            }
+        }
+    }
+
+    // 开放寻址的 int -> int 映射，避免 HashMap 装箱
+    private static class IntIndex {
+        private int[] keys = new int[1024];
+        private int[] values = new int[1024];
+        private int size;
+
+        IntIndex() {
+            Arrays.fill(keys, -1);
+        }
+
+        void clear() {
+            Arrays.fill(keys, -1);
+            size = 0;
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != -1) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(int key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != -1 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == -1) {
+                size++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
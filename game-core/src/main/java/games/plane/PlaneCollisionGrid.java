@@ -0,0 +1,208 @@
+package games.plane;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// 均匀网格粗筛：每帧把一组活着的目标的包围盒按中心所在的格子做一次计数排序（全是基本类型数组，不分配对象），
+// 查询时只看与查询框重叠的格子（查询框先按目标的最大半宽、半高扩大），再逐个做精确的包围盒相交判断。
+// 目标都在动，每帧整张重建比增量维护更简单，也只要 O(目标数 + 格子数)
+public class PlaneCollisionGrid {
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[] cellStart; // 第 c 个格子的目标是 sorted[cellStart[c] .. cellStart[c + 1])
+    private int[] sorted = new int[0]; // 按格子排好的目标下标
+    private int[] cellOf = new int[0]; // 每个目标所在的格子
+    private double[] x; // 目标包围盒的左上角和尺寸，和 PlaneEntities 的布局一致
+    private double[] y;
+    private double[] width;
+    private double[] height;
+    private int count; // 放进网格的目标数
+    private double reachX; // 目标的最大半宽，查询时按它扩大
+    private double reachY;
+
+    public PlaneCollisionGrid(double width, double height, double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellStart = new int[cols * rows + 1];
+    }
+
+    // 用下标 [0, limit) 里活着的目标重建网格；数组只记引用，查询前调用方不能改里面的坐标
+    public void build(double[] x, double[] y, double[] width, double[] height, boolean[] alive, int limit) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        if (cellOf.length < limit) {
+            cellOf = new int[Math.max(limit, cellOf.length * 2)];
+            sorted = new int[cellOf.length];
+        }
+        reachX = 0;
+        reachY = 0;
+        count = 0;
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < limit; i++) {
+            if (!alive[i]) {
+                continue;
+            }
+            reachX = Math.max(reachX, width[i] / 2);
+            reachY = Math.max(reachY, height[i] / 2);
+            int cell = cell(column(x[i] + width[i] / 2), row(y[i] + height[i] / 2));
+            cellOf[i] = cell;
+            cellStart[cell + 1]++;
+            count++;
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        // 倒着放，每个格子里保持下标从小到大，查询结果因此是确定的
+        for (int i = limit - 1; i >= 0; i--) {
+            if (alive[i]) {
+                sorted[--cellStart[cellOf[i] + 1]] = i;
+            }
+        }
+        // 这时 cellStart[c + 1] 已经减成了格子 c 的开始位置，整体左移一格
+        System.arraycopy(cellStart, 1, cellStart, 0, cols * rows);
+        cellStart[cols * rows] = count;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // 把与查询框相交的目标下标写进 out，返回个数（最多 out.length 个）
+    public int query(double qMinX, double qMinY, double qMaxX, double qMaxY, int[] out) {
+        int found = 0;
+        int c0 = column(qMinX - reachX);
+        int c1 = column(qMaxX + reachX);
+        int r0 = row(qMinY - reachY);
+        int r1 = row(qMaxY + reachY);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = cell(c, r);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = sorted[k];
+                    if (overlaps(i, qMinX, qMinY, qMaxX, qMaxY)) {
+                        if (found == out.length) {
+                            return found;
+                        }
+                        out[found++] = i;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // 与查询框相交、而且现在还活着的第一个目标（建网格之后才死的会跳过）；没有返回 -1
+    public int firstHit(double qMinX, double qMinY, double qMaxX, double qMaxY, boolean[] alive) {
+        int c0 = column(qMinX - reachX);
+        int c1 = column(qMaxX + reachX);
+        int r0 = row(qMinY - reachY);
+        int r1 = row(qMaxY + reachY);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = cell(c, r);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = sorted[k];
+                    if (alive[i] && overlaps(i, qMinX, qMinY, qMaxX, qMaxY)) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean overlaps(int i, double qMinX, double qMinY, double qMaxX, double qMaxY) {
+        return x[i] < qMaxX && qMinX < x[i] + width[i] && y[i] < qMaxY && qMinY < y[i] + height[i];
+    }
+
+    // 超出范围的坐标夹到边上的格子里，飞出屏幕一点的目标也能查到
+    private int column(double x) {
+        return Math.min(cols - 1, Math.max(0, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor(y / cellSize)));
+    }
+
+    private int cell(int col, int row) {
+        return row * cols + col;
+    }
+
+    public static void main(String[] args) {
+        // 参数：[子弹数 敌机数 帧数]；随机摆放后每帧重建网格并结算碰撞，第一帧和暴力两两比较核对
+        int bulletCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int enemyCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int frames = args.length > 2 ? Integer.parseInt(args[2]) : 600;
+        double width = 800;
+        double height = 600;
+        double enemySize = 20;
+        double bulletSize = 10;
+        Random random = new Random(42);
+        double[] bulletX = new double[bulletCount];
+        double[] bulletY = new double[bulletCount];
+        PlaneEntities enemies = new PlaneEntities(enemyCount);
+        PlaneCollisionGrid grid = new PlaneCollisionGrid(width, height, enemySize);
+
+        long totalNanos = 0;
+        long worstNanos = 0;
+        long hits = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            for (int i = 0; i < bulletCount; i++) {
+                bulletX[i] = random.nextDouble() * width;
+                bulletY[i] = random.nextDouble() * height;
+            }
+            enemies.clear();
+            for (int i = 0; i < enemyCount; i++) {
+                enemies.spawn((byte) 0, random.nextDouble() * (width - enemySize), random.nextDouble() * (height - enemySize),
+                        enemySize, enemySize, 0, 0);
+            }
+            long start = System.nanoTime();
+            grid.build(enemies.x, enemies.y, enemies.width, enemies.height, enemies.alive, enemies.limit());
+            if (frame == 0) {
+                // 第一帧和暴力两两比较核对：每颗子弹查到的相交敌机数必须一样
+                int[] candidates = new int[enemyCount];
+                for (int b = 0; b < bulletCount; b++) {
+                    double qMinX = bulletX[b] - bulletSize;
+                    double qMinY = bulletY[b] - bulletSize;
+                    double qMaxX = bulletX[b] + bulletSize;
+                    double qMaxY = bulletY[b] + bulletSize;
+                    int n = grid.query(qMinX, qMinY, qMaxX, qMaxY, candidates);
+                    int brute = 0;
+                    for (int e = 0; e < enemyCount; e++) {
+                        if (enemies.x[e] < qMaxX && qMinX < enemies.x[e] + enemySize
+                                && enemies.y[e] < qMaxY && qMinY < enemies.y[e] + enemySize) {
+                            brute++;
+                        }
+                    }
+                    if (n != brute) {
+                        throw new IllegalStateException("Bullet " + b + ": grid found " + n + ", brute force " + brute);
+                    }
+                }
+                start = System.nanoTime();
+            }
+            int frameHits = 0;
+            for (int b = 0; b < bulletCount; b++) {
+                int e = grid.firstHit(bulletX[b] - bulletSize, bulletY[b] - bulletSize,
+                        bulletX[b] + bulletSize, bulletY[b] + bulletSize, enemies.alive);
+                if (e >= 0) {
+                    enemies.remove(e);
+                    frameHits++;
+                }
+            }
+            enemies.commitRemovals();
+            long nanos = System.nanoTime() - start;
+            totalNanos += nanos;
+            worstNanos = Math.max(worstNanos, nanos);
+            hits += frameHits;
+        }
+        System.out.printf("%d bullets vs %d enemies: %.3f ms/frame average, %.3f ms worst, %.1f hits/frame%n",
+                bulletCount, enemyCount, totalNanos / 1e6 / frames, worstNanos / 1e6, (double) hits / frames);
+    }
+}
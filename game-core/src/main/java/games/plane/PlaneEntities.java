@@ -0,0 +1,153 @@
+package games.plane;
+
+// 结构数组形式的实体仓库：每个属性一个基本类型数组，下标就是实体的槽位。
+// 容量在构造时定死，删掉的槽位进空闲栈，下次生成时复用，稳定运行时每帧不分配内存。
+// 删除是延迟的：remove 只把实体标成死亡，commitRemovals 时才放回空闲栈，
+// 这样一帧里正在遍历的槽位不会被新实体占用。
+// 数组是包内可见的字段，更新循环直接按下标读写；遍历范围是 [0, limit())，死亡的槽位要跳过或者无害地算一遍
+public class PlaneEntities {
+    final double[] x; // 左上角
+    final double[] y;
+    final double[] vx; // 每一步的位移
+    final double[] vy;
+    final double[] width;
+    final double[] height;
+    final byte[] type;
+    final boolean[] alive;
+
+    private final int[] free; // 空闲槽位栈
+    private int freeCount;
+    private final int[] removed; // 这一帧删掉、还没放回空闲栈的槽位
+    private int removedCount;
+    private int limit; // 用过的最高槽位 + 1
+    private int count; // 活着的实体数
+
+    public PlaneEntities(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        width = new double[capacity];
+        height = new double[capacity];
+        type = new byte[capacity];
+        alive = new boolean[capacity];
+        free = new int[capacity];
+        removed = new int[capacity];
+    }
+
+    // 生成一个实体，返回槽位；满了返回 -1
+    public int spawn(byte type, double x, double y, double width, double height, double vx, double vy) {
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else if (limit < alive.length) {
+            slot = limit++;
+        } else {
+            return -1;
+        }
+        this.type[slot] = type;
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.width[slot] = width;
+        this.height[slot] = height;
+        this.vx[slot] = vx;
+        this.vy[slot] = vy;
+        alive[slot] = true;
+        count++;
+        return slot;
+    }
+
+    // 标记删除；已经死了的重复删除会被忽略
+    public void remove(int slot) {
+        if (!alive[slot]) {
+            return;
+        }
+        alive[slot] = false;
+        removed[removedCount++] = slot;
+        count--;
+    }
+
+    // 把这一帧删掉的槽位放回空闲栈，返回个数
+    // 撤销还没提交的删除，让被删的实体重新活过来；只给基准测试在同一局面上反复跑碰撞用
+    void undoRemovals() {
+        for (int i = 0; i < removedCount; i++) {
+            alive[removed[i]] = true;
+        }
+        count += removedCount;
+        removedCount = 0;
+    }
+
+    public int commitRemovals() {
+        int n = removedCount;
+        System.arraycopy(removed, 0, free, freeCount, n);
+        freeCount += n;
+        removedCount = 0;
+        return n;
+    }
+
+    // 所有槽位按速度移动一步；死亡的槽位一起算，循环里没有分支
+    public void integrate() {
+        integrate(0, limit);
+    }
+
+    // 只移动 [from, to) 的槽位，并行时每个线程处理一段
+    public void integrate(int from, int to) {
+        double[] x = this.x;
+        double[] y = this.y;
+        double[] vx = this.vx;
+        double[] vy = this.vy;
+        for (int i = from; i < to; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+    }
+
+    // 删除完全离开 [minX, maxX) x [minY, maxY) 的实体，返回个数
+    public int removeOutside(double minX, double minY, double maxX, double maxY) {
+        int n = 0;
+        for (int i = 0; i < limit; i++) {
+            if (alive[i] && (x[i] + width[i] <= minX || x[i] >= maxX || y[i] + height[i] <= minY || y[i] >= maxY)) {
+                remove(i);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public void clear() {
+        for (int i = 0; i < limit; i++) {
+            alive[i] = false;
+        }
+        limit = 0;
+        count = 0;
+        freeCount = 0;
+        removedCount = 0;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return alive.length;
+    }
+
+    public boolean isAlive(int slot) {
+        return alive[slot];
+    }
+
+    public double getX(int slot) {
+        return x[slot];
+    }
+
+    public double getY(int slot) {
+        return y[slot];
+    }
+}
@@ -0,0 +1,138 @@
+package games.plane;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// 每帧各阶段耗时的滚动窗口统计：最近 window 帧的更新、碰撞、绘制和整帧耗时，
+// 按需算出 p50/p99/max（拷到预先分配的数组里排序，不分配内存）。
+// 可选地把每次汇总的结果追加到 CSV 文件里，方便事后画图
+public class PlaneFrameStats implements Closeable {
+    public static final int UPDATE = 0;
+    public static final int COLLISION = 1;
+    public static final int RENDER = 2;
+    public static final int FRAME = 3; // 前三项之和
+    private static final String[] PHASE_NAMES = {"update", "collision", "render", "frame"};
+    public static final long FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+
+    private final long[][] samples; // [阶段][第几帧]，环形
+    private final long[] sorted; // 排序用的工作区
+    private final long[][] summary = new long[PHASE_NAMES.length][3]; // 上次 summarize 的 p50、p99、max
+    private int next; // 下一帧写在哪
+    private int filled; // 窗口里已有的帧数
+    private int entities; // 最近一帧的实体数
+    private BufferedWriter csv;
+
+    public PlaneFrameStats(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        samples = new long[PHASE_NAMES.length][window];
+        sorted = new long[window];
+    }
+
+    public void record(long updateNanos, long collisionNanos, long renderNanos, int entities) {
+        samples[UPDATE][next] = updateNanos;
+        samples[COLLISION][next] = collisionNanos;
+        samples[RENDER][next] = renderNanos;
+        samples[FRAME][next] = updateNanos + collisionNanos + renderNanos;
+        next = (next + 1) % sorted.length;
+        filled = Math.min(filled + 1, sorted.length);
+        this.entities = entities;
+    }
+
+    // 重新计算窗口里各阶段的分位数
+    public void summarize() {
+        for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+            if (filled == 0) {
+                Arrays.fill(summary[phase], 0);
+                continue;
+            }
+            System.arraycopy(samples[phase], 0, sorted, 0, filled);
+            Arrays.sort(sorted, 0, filled);
+            summary[phase][0] = sorted[(filled - 1) / 2];
+            summary[phase][1] = sorted[(int) Math.ceil(filled * 0.99) - 1];
+            summary[phase][2] = sorted[filled - 1];
+        }
+    }
+
+    public long p50(int phase) {
+        return summary[phase][0];
+    }
+
+    public long p99(int phase) {
+        return summary[phase][1];
+    }
+
+    public long max(int phase) {
+        return summary[phase][2];
+    }
+
+    public int getEntities() {
+        return entities;
+    }
+
+    public int getFrames() {
+        return filled;
+    }
+
+    // 整帧 p99 是否超出 60 FPS 的预算；以上次 summarize 为准
+    public boolean overBudget() {
+        return filled == sorted.length && p99(FRAME) > FRAME_BUDGET_NANOS;
+    }
+
+    // 一行 HUD 文字，如 "update 0.12/0.40/1.30 ms"（p50/p99/max）
+    public String line(int phase) {
+        return String.format("%-9s %6.2f /%6.2f /%6.2f ms", PHASE_NAMES[phase],
+                p50(phase) / 1e6, p99(phase) / 1e6, max(phase) / 1e6);
+    }
+
+    // 把之后每次 writeCsvRow 的结果追加到 file，先写表头
+    public void openCsv(Path file) {
+        try {
+            csv = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            csv.write("seconds,level,entities");
+            for (String name : PHASE_NAMES) {
+                csv.write("," + name + "_p50_us," + name + "_p99_us," + name + "_max_us");
+            }
+            csv.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 写一行当前的汇总；没有打开 CSV 时什么也不做
+    public void writeCsvRow(double seconds, int level) {
+        if (csv == null) {
+            return;
+        }
+        try {
+            csv.write(String.format("%.2f,%d,%d", seconds, level, entities));
+            for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+                csv.write(String.format(",%d,%d,%d", p50(phase) / 1000, p99(phase) / 1000, max(phase) / 1000));
+            }
+            csv.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (csv == null) {
+            return;
+        }
+        try {
+            csv.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            csv = null;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package games.plane;
+
+import games.core.SplitMix64;
+
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// 无界面驱动：不启动 JavaFX，直接用 PlaneSimulation 跑一批带种子的对局，
+// 由一个简单的脚本控制：对准最低的那架敌机左右移动，每隔几步开一枪。
+// 用来比实时快得多地跑压力场景和 AI 场景，并核对同一种子的结果可以复现。
+// --stress 模式按压力等级一级级加码，只计更新和碰撞的耗时（没有绘制），直到整步 p99 超出帧预算。
+// --parallel 模式把敌机和子弹一直补满到给定的数量，对比单线程和 fork-join 并行的每步耗时，并核对两边结果一致
+public class PlaneHeadless {
+    private static final int FIRE_INTERVAL = 6; // 脚本每隔几步开一枪
+    private static final int STATS_WINDOW = 300;
+    private static final int LEVEL_STEPS = PlaneSimulation.STEPS_PER_SECOND * 3; // 每隔多少步尝试升一级
+    private static final int MAX_STRESS_LEVEL = 20;
+
+    private PlaneHeadless() {
+    }
+
+    // 脚本的一步输入
+    public static int scriptedInput(PlaneSimulation simulation) {
+        PlaneEntities enemies = simulation.getEnemies();
+        int target = -1;
+        for (int i = 0; i < enemies.limit(); i++) {
+            if (enemies.alive[i] && (target < 0 || enemies.y[i] > enemies.y[target])) {
+                target = i;
+            }
+        }
+        int input = simulation.getTick() % FIRE_INTERVAL == 0 ? PlaneSimulation.FIRE : 0;
+        if (target >= 0) {
+            double aim = enemies.x[target] + PlaneSimulation.ENEMY_SIZE / 2.0;
+            double center = simulation.getPlayerX() + PlaneSimulation.PLAYER_SIZE / 2.0;
+            if (aim < center - PlaneSimulation.PLAYER_SPEED) {
+                input |= PlaneSimulation.LEFT;
+            } else if (aim > center + PlaneSimulation.PLAYER_SPEED) {
+                input |= PlaneSimulation.RIGHT;
+            }
+        }
+        return input;
+    }
+
+    // 跑完一局（撞机或者走满 maxSteps 步），返回走的步数
+    public static long play(PlaneSimulation simulation, long seed, long maxSteps) {
+        simulation.reset(seed);
+        while (simulation.getTick() < maxSteps && simulation.step(scriptedInput(simulation))) {
+            // 一直走到结束
+        }
+        return simulation.getTick();
+    }
+
+    // 压力模式：每 LEVEL_STEPS 步看一次窗口，没超预算就升一级，返回超出时的等级
+    public static int stress(PlaneSimulation simulation, PlaneFrameStats stats) {
+        simulation.setStressLevel(0);
+        while (true) {
+            simulation.clearTimings();
+            simulation.step(scriptedInput(simulation));
+            stats.record(simulation.getUpdateNanos(), simulation.getCollisionNanos(), 0, simulation.getEntityCount());
+            long tick = simulation.getTick();
+            if (tick % PlaneSimulation.STEPS_PER_SECOND == 0) {
+                stats.summarize();
+                stats.writeCsvRow((double) tick / PlaneSimulation.STEPS_PER_SECOND, simulation.getStressLevel());
+            }
+            if (tick % LEVEL_STEPS == 0) {
+                stats.summarize();
+                System.out.printf("level %2d  entities %5d  %s  %s%n", simulation.getStressLevel(), stats.getEntities(),
+                        stats.line(PlaneFrameStats.UPDATE), stats.line(PlaneFrameStats.COLLISION));
+                if (stats.overBudget() || simulation.getStressLevel() == MAX_STRESS_LEVEL) {
+                    return simulation.getStressLevel();
+                }
+                simulation.setStressLevel(simulation.getStressLevel() + 1);
+            }
+        }
+    }
+
+    // 并行压测：每步之前用固定种子的随机数把敌机和子弹各补到 entities / 2 个，走 steps 步，
+    // 返回得分、玩家被击中次数和实体数的组合，线程数不同时应该完全一样
+    public static long crowd(PlaneSimulation simulation, int entities, int steps, long seed) {
+        simulation.reset(seed);
+        simulation.setStressLevel(0);
+        simulation.clearTimings();
+        Random random = new Random(seed);
+        PlaneEntities enemies = simulation.getEnemies();
+        PlaneEntities bullets = simulation.getBullets();
+        long checksum = 0;
+        for (int step = 0; step < steps; step++) {
+            while (enemies.size() < entities / 2) {
+                byte type = random.nextInt(4) == 0 ? PlaneSimulation.HOMING : PlaneSimulation.ENEMY;
+                if (enemies.spawn(type, random.nextDouble() * (PlaneSimulation.WIDTH - PlaneSimulation.ENEMY_SIZE),
+                        random.nextDouble() * PlaneSimulation.HEIGHT / 2, PlaneSimulation.ENEMY_SIZE,
+                        PlaneSimulation.ENEMY_SIZE, 0, PlaneSimulation.ENEMY_SPEED) < 0) {
+                    break;
+                }
+            }
+            while (bullets.size() < entities / 2) {
+                if (bullets.spawn(PlaneSimulation.BULLET, random.nextDouble() * PlaneSimulation.WIDTH,
+                        PlaneSimulation.HEIGHT / 2.0 + random.nextDouble() * PlaneSimulation.HEIGHT / 2,
+                        PlaneSimulation.BULLET_SIZE * 2, PlaneSimulation.BULLET_SIZE * 2, 0, -PlaneSimulation.BULLET_SPEED) < 0) {
+                    break;
+                }
+            }
+            simulation.step(step % FIRE_INTERVAL == 0 ? PlaneSimulation.FIRE : 0);
+            checksum = checksum * 31 + simulation.getScore() * 1_000_003L + simulation.getPlayerHits() * 7919L
+                    + simulation.getEntityCount();
+        }
+        return checksum;
+    }
+
+    private static void parallelBench(int entities, int threads, int steps) {
+        PlaneSimulation simulation = new PlaneSimulation(42L, entities);
+        long sequential = crowd(simulation, entities, steps, 42L);
+        double sequentialMillis = (simulation.getUpdateNanos() + simulation.getCollisionNanos()) / 1e6 / steps;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            simulation.setPool(pool);
+            long parallel = crowd(simulation, entities, steps, 42L);
+            double parallelMillis = (simulation.getUpdateNanos() + simulation.getCollisionNanos()) / 1e6 / steps;
+            System.out.printf("%d entities, %d steps: 1 thread %.2f ms/step, %d threads %.2f ms/step (%.2fx), checksum %016x %s%n",
+                    simulation.getEntityCount(), steps, sequentialMillis, threads, parallelMillis,
+                    sequentialMillis / parallelMillis, parallel, parallel == sequential ? "matches" : "DIFFERS from " + Long.toHexString(sequential));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        // 参数：[对局数 每局最多步数 种子]，默认 100 局，每局最多十分钟游戏时间；
+        // 或者 --stress [CSV 文件]：压力模式，找到帧预算的上限；
+        // 或者 --parallel [实体数 线程数 步数]：默认 100000 个实体、所有核、300 步
+        if (args.length > 0 && args[0].equals("--parallel")) {
+            int entities = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            int steps = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+            parallelBench(entities, threads, steps);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--stress")) {
+            try (PlaneFrameStats stats = new PlaneFrameStats(STATS_WINDOW)) {
+                if (args.length > 1) {
+                    stats.openCsv(Paths.get(args[1]));
+                }
+                int level = stress(new PlaneSimulation(42L), stats);
+                System.out.printf("Stopped at level %d with %d entities: %s%n",
+                        level, stats.getEntities(), stats.line(PlaneFrameStats.FRAME));
+            }
+            return;
+        }
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        long maxSteps = args.length > 1 ? Long.parseLong(args[1]) : PlaneSimulation.STEPS_PER_SECOND * 600L;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        PlaneSimulation simulation = new PlaneSimulation(seed);
+        long steps = 0;
+        long totalScore = 0;
+        int maxScore = 0;
+        int crashed = 0;
+        long checksum = 0; // 所有对局得分和步数的组合，同一种子每次运行都应该一样
+        long start = System.nanoTime();
+        for (int game = 0; game < games; game++) {
+            long gameSteps = play(simulation, SplitMix64.gameSeed(seed, game), maxSteps);
+            steps += gameSteps;
+            totalScore += simulation.getScore();
+            maxScore = Math.max(maxScore, simulation.getScore());
+            if (simulation.isOver()) {
+                crashed++;
+            }
+            checksum = checksum * 31 + gameSteps * 1_000_003L + simulation.getScore();
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        double stepsPerSecond = steps * 1e9 / elapsed;
+        System.out.printf("Plane headless: %d games, %d steps, %.0f steps/s (%.0fx real time), crashed=%d, score mean=%.1f max=%d, checksum=%016x%n",
+                games, steps, stepsPerSecond, stepsPerSecond / PlaneSimulation.STEPS_PER_SECOND, crashed,
+                (double) totalScore / games, maxScore, checksum);
+    }
+}
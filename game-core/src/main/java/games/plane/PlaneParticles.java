@@ -0,0 +1,189 @@
+package games.plane;
+
+import games.core.SplitMix64;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// 粒子特效（爆炸、枪口火光、引擎尾焰）的环形缓冲：和 PlaneEntities 一样每个属性一个基本类型数组，
+// 没有粒子对象。新粒子总是写在 head 处，head 转一圈回来就覆盖最老的粒子，所以生成不会失败，也不用空闲栈。
+// 寿命不超过 MAX_LIFE 步，所以只有最近 MAX_LIFE 步里生成的粒子可能还活着：每步开始时记下已生成的总数，
+// 更新和绘制只走这个窗口，不管容量多大，开销只和最近的生成量有关。
+// 粒子只是装饰，不参与碰撞；用自己的随机数，不会改变模拟本身的随机序列和结果
+public class PlaneParticles {
+    static final byte EXPLOSION = 0; // 粒子种类，也是渲染时精灵图的下标
+    static final byte MUZZLE = 1;
+    static final byte TRAIL = 2;
+    static final int KINDS = 3;
+    static final int MAX_LIFE = 48; // 粒子寿命的上限（步）
+    private static final double DRAG = 0.94; // 每步速度的衰减
+
+    final double[] x; // 中心
+    final double[] y;
+    final double[] vx; // 这一步的位移（已经乘过衰减）
+    final double[] vy;
+    final int[] age; // 已经活了几步
+    final int[] life; // 总寿命（步），age >= life 就是死的
+    final byte[] kind;
+
+    private long spawned; // 一共生成过多少个粒子，第 n 个在槽位 n % 容量
+    private final long[] marks = new long[MAX_LIFE]; // 最近 MAX_LIFE 步开始时的 spawned，环形
+    private long steps;
+    private final SplitMix64 random = new SplitMix64(0);
+
+    public PlaneParticles(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        age = new int[capacity];
+        life = new int[capacity];
+        kind = new byte[capacity];
+    }
+
+    // 生成一个粒子，寿命截到 MAX_LIFE；缓冲满了就覆盖最老的
+    public void spawn(byte kind, double x, double y, double vx, double vy, int life) {
+        int slot = (int) (spawned++ % this.x.length);
+        this.kind[slot] = kind;
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.vx[slot] = vx;
+        this.vy[slot] = vy;
+        age[slot] = 0;
+        this.life[slot] = Math.min(life, MAX_LIFE);
+    }
+
+    // 在 (cx, cy) 炸开 count 个粒子，方向均匀、速率随机
+    public void explode(double cx, double cy, int count) {
+        for (int i = 0; i < count; i++) {
+            double angle = random.nextDouble() * Math.PI * 2;
+            double speed = 1 + random.nextDouble() * 3;
+            spawn(EXPLOSION, cx, cy, Math.cos(angle) * speed, Math.sin(angle) * speed, 24 + (int) (random.nextDouble() * 24));
+        }
+    }
+
+    // 朝上喷出的一小簇枪口火光
+    public void muzzle(double cx, double cy, int count) {
+        for (int i = 0; i < count; i++) {
+            spawn(MUZZLE, cx, cy, (random.nextDouble() - 0.5) * 2, -2 - random.nextDouble() * 2, 6 + (int) (random.nextDouble() * 4));
+        }
+    }
+
+    // 往下飘的尾焰
+    public void trail(double cx, double cy) {
+        spawn(TRAIL, cx + (random.nextDouble() - 0.5) * 6, cy, (random.nextDouble() - 0.5) * 0.6, 1.5 + random.nextDouble(), 18);
+    }
+
+    // 单线程走一步
+    public void step() {
+        beginStep();
+        update(0, window());
+    }
+
+    // 每步调用一次，在 update 之前：记下这一步开始时的生成数，滑动窗口跟着往前走
+    public void beginStep() {
+        marks[(int) (steps++ % MAX_LIFE)] = spawned;
+    }
+
+    // 窗口里第一个槽位：比它更早生成的粒子一定已经死了
+    public int first() {
+        return (int) (oldest() % x.length);
+    }
+
+    // 窗口里的槽位数，从 first() 开始往后数，超过末尾就绕回 0
+    public int window() {
+        return (int) (spawned - oldest());
+    }
+
+    private long oldest() {
+        return Math.max(spawned - x.length, marks[(int) (steps % MAX_LIFE)]);
+    }
+
+    // 窗口里第 [from, to) 个粒子走一步；死了的粒子一起算，循环里没有分支。并行时每个线程处理一段
+    public void update(int from, int to) {
+        int start = first() + from;
+        int end = first() + to;
+        if (start >= x.length) {
+            advance(start - x.length, end - x.length);
+        } else if (end > x.length) {
+            advance(start, x.length);
+            advance(0, end - x.length);
+        } else {
+            advance(start, end);
+        }
+    }
+
+    private void advance(int from, int to) {
+        double[] x = this.x;
+        double[] y = this.y;
+        double[] vx = this.vx;
+        double[] vy = this.vy;
+        int[] age = this.age;
+        for (int i = from; i < to; i++) {
+            vx[i] *= DRAG;
+            vy[i] *= DRAG;
+            x[i] += vx[i];
+            y[i] += vy[i];
+            age[i]++;
+        }
+    }
+
+    public void clear() {
+        spawned = 0;
+        steps = 0;
+        Arrays.fill(marks, 0);
+    }
+
+    public void seed(long seed) {
+        random.setState(seed);
+    }
+
+    // 活着的粒子数，要扫一遍窗口，只在统计时用
+    public int size() {
+        int n = 0;
+        int slot = first();
+        for (int k = window(); k > 0; k--) {
+            if (age[slot] < life[slot]) {
+                n++;
+            }
+            if (++slot == x.length) {
+                slot = 0;
+            }
+        }
+        return n;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public static void main(String[] args) {
+        // 参数：[活着的粒子数 步数]；每步补够这么多粒子的爆炸，测更新的耗时和有没有 GC
+        int live = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 6000;
+        PlaneParticles particles = new PlaneParticles(PlaneSimulation.MAX_PARTICLES);
+        particles.seed(42L);
+        int perStep = live * 4 / (MAX_LIFE * 3) + 1; // 爆炸粒子的平均寿命大约是 MAX_LIFE 的四分之三
+        long gcBefore = gcCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            particles.step();
+            particles.explode(PlaneSimulation.WIDTH / 2.0, PlaneSimulation.HEIGHT / 2.0, perStep);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%d live particles (window %d): %.1f us/step over %d steps, %d GCs%n",
+                particles.size(), particles.window(), elapsed / 1e3 / steps, steps, gcCount() - gcBefore);
+    }
+
+    private static long gcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            n += Math.max(0, bean.getCollectionCount());
+        }
+        return n;
+    }
+}
@@ -0,0 +1,499 @@
+package games.plane;
+
+import games.core.SplitMix64;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 飞机大战的纯逻辑核心：不依赖 JavaFX，step(input) 推进一个固定时间步（1/60 秒），
+// 速度都按"每步多少像素"计，和显示器的刷新率无关。同一个种子和同样的输入序列总是得到同样的结果，
+// 可以在没有图形界面的地方远快于实时地跑（见 PlaneHeadless）。
+// 压力模式下玩家不会死，按等级加快生成，并混入追踪、散射、整排等花样，用来找帧预算的上限。
+// 击中、开火和玩家的引擎会往 PlaneParticles 里喷粒子，只用来画，不影响规则。
+// 给了 fork-join 线程池时，实体多的阶段（移动、追踪转向、子弹找目标）按数组切片并行，
+// 删除、得分和生成仍在调用线程上按下标顺序提交，所以结果和单线程完全一样，与线程数无关
+public class PlaneSimulation {
+    public static final int WIDTH = 800; // 游戏区域宽度
+    public static final int HEIGHT = 600; // 游戏区域高度
+    public static final int PLAYER_SIZE = 40; // 玩家飞机尺寸
+    public static final int ENEMY_SIZE = 20; // 敌机尺寸
+    public static final int BULLET_SIZE = 10; // 子弹半径
+    public static final double PLAYER_SPEED = 5; // 每步的位移
+    public static final double BULLET_SPEED = 5;
+    public static final double ENEMY_SPEED = 2;
+    public static final int STEPS_PER_SECOND = 60;
+    public static final long STEP_NANOS = 1_000_000_000L / STEPS_PER_SECOND;
+    private static final int SPAWN_INTERVAL = 60; // 每隔多少步生成一架敌机
+    static final int MAX_ENEMIES = 16384; // 默认的实体仓库容量，满了就不再生成
+    static final int MAX_BULLETS = 16384;
+    static final int MAX_ENEMY_SHOTS = 16384;
+    static final int MAX_PARTICLES = 65536; // 粒子环形缓冲的容量，满了覆盖最老的
+    private static final int EXPLOSION_PARTICLES = 16; // 打掉一架敌机炸出的粒子数
+    private static final int MUZZLE_PARTICLES = 4;
+    private static final int TRAIL_PARTICLES = 2; // 引擎每步喷出的尾焰粒子数
+    private static final int PARALLEL_THRESHOLD = 8192; // 一个阶段的槽位数超过它才并行
+    private static final int SLICE = 4096; // 并行时每个叶子任务处理的槽位数
+    private static final double HOMING_TURN = 0.08; // 追踪敌机每步向玩家方向修正的速度
+    private static final int SHOOT_INTERVAL = 90; // 散射敌机每隔多少步开一次火
+    private static final int SPREAD = 5; // 一次散射的子弹数
+    private static final double SPREAD_ANGLE = Math.PI / 3; // 散射的总张角
+    private static final double SHOT_SPEED = 3;
+    static final int SHOT_SIZE = 4; // 敌方子弹半径
+    private static final int WAVE_INTERVAL = 240; // 压力等级 2 以上每隔多少步来一整排
+
+    // 输入是这些位的组合
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int FIRE = 1 << 4;
+
+    static final byte ENEMY = 1; // 实体类型：直线下落的敌机
+    static final byte HOMING = 2; // 追踪玩家的敌机
+    static final byte SHOOTER = 3; // 会散射的敌机
+    static final byte BULLET = 4; // 玩家的子弹
+    static final byte ENEMY_SHOT = 5; // 敌方子弹
+
+    private final PlaneEntities enemies;
+    private final PlaneEntities bullets;
+    private final PlaneEntities enemyShots;
+    private final PlaneParticles particles = new PlaneParticles(MAX_PARTICLES);
+    private final int[] bulletTargets; // 并行碰撞时每颗子弹找到的第一架相交敌机，没有为 -1
+    private ForkJoinPool pool; // 为 null 时全部单线程
+    // 碰撞检测：用敌机的坐标数组建均匀网格粗筛，命中的先标记死亡，步末统一回收
+    private final PlaneCollisionGrid collisionGrid = new PlaneCollisionGrid(WIDTH, HEIGHT, ENEMY_SIZE);
+
+    private long seed;
+    private final SplitMix64 random = new SplitMix64(0);
+    private double playerX; // 玩家左上角
+    private double playerY;
+    private double previousPlayerX; // 上一步的位置，用于插值绘制
+    private double previousPlayerY;
+    private int score;
+    private boolean over;
+    private long tick; // 已经走了多少步
+    private int stressLevel = -1; // 压力等级，-1 表示普通模式
+    private double spawnCredit; // 压力模式下攒着的生成数，攒够一个生成一架
+    private long playerHits; // 压力模式下玩家被撞或被打中的次数（不会死）
+    private long updateNanos; // 自上次 clearTimings 以来更新阶段（移动、生成、回收）和碰撞阶段的累计耗时
+    private long collisionNanos;
+
+    public PlaneSimulation(long seed) {
+        this(seed, MAX_ENEMIES);
+    }
+
+    // capacity 是敌机、玩家子弹、敌方子弹三个仓库各自的容量
+    public PlaneSimulation(long seed, int capacity) {
+        enemies = new PlaneEntities(capacity);
+        bullets = new PlaneEntities(capacity);
+        enemyShots = new PlaneEntities(capacity);
+        bulletTargets = new int[capacity];
+        reset(seed);
+    }
+
+    // 设置并行用的线程池；null 表示单线程
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // 用新的种子重新开始
+    public void reset(long seed) {
+        this.seed = seed;
+        random.setState(seed);
+        enemies.clear();
+        bullets.clear();
+        enemyShots.clear();
+        particles.clear();
+        particles.seed(~seed);
+        playerX = WIDTH / 2 - PLAYER_SIZE / 2;
+        playerY = HEIGHT - PLAYER_SIZE - 20;
+        previousPlayerX = playerX;
+        previousPlayerY = playerY;
+        score = 0;
+        over = false;
+        tick = 0;
+        spawnCredit = 0;
+        playerHits = 0;
+    }
+
+    // 推进一步；返回游戏是否还在进行
+    public boolean step(int input) {
+        if (over) {
+            return false;
+        }
+        long start = System.nanoTime();
+        previousPlayerX = playerX;
+        previousPlayerY = playerY;
+        movePlayer(input);
+        if ((input & FIRE) != 0) {
+            shoot();
+        }
+        if (stressLevel >= 0) {
+            steerAndShoot();
+        }
+        integrate(enemies);
+        enemies.removeOutside(-ENEMY_SIZE, Double.NEGATIVE_INFINITY, WIDTH + ENEMY_SIZE, HEIGHT);
+        integrate(bullets);
+        bullets.removeOutside(Double.NEGATIVE_INFINITY, 0, Double.POSITIVE_INFINITY, HEIGHT);
+        integrate(enemyShots);
+        enemyShots.removeOutside(0, 0, WIDTH, HEIGHT);
+        updateParticles();
+        long collisionStart = System.nanoTime();
+        checkCollisions();
+        long collisionEnd = System.nanoTime();
+        if (stressLevel >= 0) {
+            spawnStress();
+        } else if (tick % SPAWN_INTERVAL == 0) {
+            spawnEnemy(ENEMY, randomX());
+        }
+        enemies.commitRemovals();
+        bullets.commitRemovals();
+        enemyShots.commitRemovals();
+        tick++;
+        long end = System.nanoTime();
+        updateNanos += (collisionStart - start) + (end - collisionEnd);
+        collisionNanos += collisionEnd - collisionStart;
+        return !over;
+    }
+
+    private void movePlayer(int input) {
+        if ((input & LEFT) != 0 && playerX > 0) {
+            playerX -= PLAYER_SPEED;
+        }
+        if ((input & RIGHT) != 0 && playerX + PLAYER_SIZE < WIDTH) {
+            playerX += PLAYER_SPEED;
+        }
+        if ((input & UP) != 0 && playerY > 0) {
+            playerY -= PLAYER_SPEED;
+        }
+        if ((input & DOWN) != 0 && playerY + PLAYER_SIZE < HEIGHT) {
+            playerY += PLAYER_SPEED;
+        }
+    }
+
+    private void shoot() {
+        // 子弹存成外接正方形，圆心在玩家上边缘的中点
+        bullets.spawn(BULLET, playerX + PLAYER_SIZE / 2 - BULLET_SIZE, playerY - BULLET_SIZE,
+                BULLET_SIZE * 2, BULLET_SIZE * 2, 0, -BULLET_SPEED);
+        particles.muzzle(playerX + PLAYER_SIZE / 2.0, playerY, MUZZLE_PARTICLES);
+    }
+
+    private int spawnEnemy(byte type, double x) {
+        return enemies.spawn(type, x, 0, ENEMY_SIZE, ENEMY_SIZE, 0, ENEMY_SPEED);
+    }
+
+    private double randomX() {
+        return (double) ((random.nextLong() >>> 33) % (WIDTH - ENEMY_SIZE));
+    }
+
+    // 压力模式的生成：每升一级每秒的生成数翻倍，六成直线、两成追踪、两成散射；等级 2 以上定期来一整排
+    private void spawnStress() {
+        spawnCredit += (double) (1L << Math.min(stressLevel, 20)) / STEPS_PER_SECOND;
+        while (spawnCredit >= 1) {
+            spawnCredit--;
+            long r = random.nextLong();
+            int pick = (int) ((r >>> 60) & 0xF) % 10;
+            byte type = pick < 6 ? ENEMY : pick < 8 ? HOMING : SHOOTER;
+            spawnEnemy(type, randomX());
+        }
+        if (stressLevel >= 2 && tick % WAVE_INTERVAL == 0) {
+            for (int x = 0; x + ENEMY_SIZE <= WIDTH; x += ENEMY_SIZE * 2) {
+                spawnEnemy(ENEMY, x);
+            }
+        }
+    }
+
+    private void integrate(PlaneEntities entities) {
+        if (parallel(entities.limit())) {
+            pool.invoke(new Slices(0, entities.limit()) {
+                @Override
+                void run(int from, int to) {
+                    entities.integrate(from, to);
+                }
+            });
+        } else {
+            entities.integrate();
+        }
+    }
+
+    // 老粒子走一步，再从玩家机尾喷出新的尾焰
+    private void updateParticles() {
+        particles.beginStep();
+        if (parallel(particles.window())) {
+            pool.invoke(new Slices(0, particles.window()) {
+                @Override
+                void run(int from, int to) {
+                    particles.update(from, to);
+                }
+            });
+        } else {
+            particles.update(0, particles.window());
+        }
+        for (int i = 0; i < TRAIL_PARTICLES; i++) {
+            particles.trail(playerX + PLAYER_SIZE / 2.0, playerY + PLAYER_SIZE);
+        }
+    }
+
+    private boolean parallel(int slots) {
+        return pool != null && slots > PARALLEL_THRESHOLD;
+    }
+
+    // 追踪敌机把速度往玩家的方向转一点（速率不变），各自独立，可以并行；
+    // 散射敌机按自己的节奏朝下方打出一扇子弹，要生成实体，按下标顺序在调用线程上做
+    private void steerAndShoot() {
+        if (parallel(enemies.limit())) {
+            pool.invoke(new Slices(0, enemies.limit()) {
+                @Override
+                void run(int from, int to) {
+                    steer(from, to);
+                }
+            });
+        } else {
+            steer(0, enemies.limit());
+        }
+        byte[] type = enemies.type;
+        for (int i = 0; i < enemies.limit(); i++) {
+            if (enemies.alive[i] && type[i] == SHOOTER && (tick + i) % SHOOT_INTERVAL == 0) {
+                double cx = enemies.x[i] + ENEMY_SIZE / 2.0 - SHOT_SIZE;
+                double cy = enemies.y[i] + ENEMY_SIZE;
+                for (int k = 0; k < SPREAD; k++) {
+                    double angle = Math.PI / 2 + SPREAD_ANGLE * ((double) k / (SPREAD - 1) - 0.5);
+                    enemyShots.spawn(ENEMY_SHOT, cx, cy, SHOT_SIZE * 2, SHOT_SIZE * 2,
+                            Math.cos(angle) * SHOT_SPEED, Math.sin(angle) * SHOT_SPEED);
+                }
+            }
+        }
+    }
+
+    private void steer(int from, int to) {
+        double targetX = playerX + PLAYER_SIZE / 2.0;
+        double targetY = playerY + PLAYER_SIZE / 2.0;
+        byte[] type = enemies.type;
+        for (int i = from; i < to; i++) {
+            if (!enemies.alive[i] || type[i] != HOMING) {
+                continue;
+            }
+            double dx = targetX - (enemies.x[i] + ENEMY_SIZE / 2.0);
+            double dy = targetY - (enemies.y[i] + ENEMY_SIZE / 2.0);
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance > 1) {
+                double vx = enemies.vx[i] + dx / distance * HOMING_TURN;
+                double vy = enemies.vy[i] + dy / distance * HOMING_TURN;
+                double scale = ENEMY_SPEED / Math.sqrt(vx * vx + vy * vy);
+                enemies.vx[i] = vx * scale;
+                enemies.vy[i] = vy * scale;
+            }
+        }
+    }
+
+    private void checkCollisions() {
+        collisionGrid.build(enemies.x, enemies.y, enemies.width, enemies.height, enemies.alive, enemies.limit());
+
+        int crash = collisionGrid.firstHit(playerX, playerY, playerX + PLAYER_SIZE, playerY + PLAYER_SIZE, enemies.alive);
+        if (crash >= 0 && stressLevel < 0) {
+            over = true;
+            particles.explode(playerX + PLAYER_SIZE / 2.0, playerY + PLAYER_SIZE / 2.0, EXPLOSION_PARTICLES * 4);
+            for (int i = 0; i < enemies.limit(); i++) {
+                enemies.remove(i);
+            }
+            return;
+        }
+        if (crash >= 0) {
+            // 压力模式下玩家不会死，撞上的敌机消失
+            explode(crash);
+            enemies.remove(crash);
+            playerHits++;
+        }
+        // 敌方子弹只和玩家比较，线性扫一遍就够
+        for (int i = 0; i < enemyShots.limit(); i++) {
+            if (enemyShots.alive[i] && enemyShots.x[i] < playerX + PLAYER_SIZE && playerX < enemyShots.x[i] + SHOT_SIZE * 2
+                    && enemyShots.y[i] < playerY + PLAYER_SIZE && playerY < enemyShots.y[i] + SHOT_SIZE * 2) {
+                enemyShots.remove(i);
+                particles.explode(enemyShots.x[i] + SHOT_SIZE, enemyShots.y[i] + SHOT_SIZE, EXPLOSION_PARTICLES / 4);
+                playerHits++;
+            }
+        }
+
+        // 每颗子弹最多打掉一架还活着的敌机；删除都是延迟的，遍历中不会改动槽位
+        if (parallel(bullets.limit())) {
+            collideParallel();
+            return;
+        }
+        for (int i = 0; i < bullets.limit(); i++) {
+            if (bullets.alive[i]) {
+                hit(i, firstHit(i));
+            }
+        }
+    }
+
+    // 基准测试用：在当前局面上跑一遍真正的碰撞阶段（网格构建、单线程或并行的子弹查询、命中提交），
+    // 再撤销这一遍的删除和计分，下一次调用的输入不变。要在 step 之后调用，此时没有未提交的删除。返回打中的敌机数
+    int collideAndUndo() {
+        int scoreBefore = score;
+        long hitsBefore = playerHits;
+        boolean overBefore = over;
+        checkCollisions();
+        int hits = score - scoreBefore;
+        enemies.undoRemovals();
+        bullets.undoRemovals();
+        enemyShots.undoRemovals();
+        score = scoreBefore;
+        playerHits = hitsBefore;
+        over = overBefore;
+        return hits;
+    }
+
+    private int firstHit(int bullet) {
+        double x = bullets.x[bullet];
+        double y = bullets.y[bullet];
+        return collisionGrid.firstHit(x, y, x + bullets.width[bullet], y + bullets.height[bullet], enemies.alive);
+    }
+
+    private void hit(int bullet, int enemy) {
+        if (enemy >= 0) {
+            explode(enemy);
+            enemies.remove(enemy);
+            bullets.remove(bullet);
+            score++;
+        }
+    }
+
+    private void explode(int enemy) {
+        particles.explode(enemies.x[enemy] + ENEMY_SIZE / 2.0, enemies.y[enemy] + ENEMY_SIZE / 2.0, EXPLOSION_PARTICLES);
+    }
+
+    private void collideParallel() {
+        // 先并行地给每颗子弹找第一架相交的敌机（只读，不管同一步里谁先打掉谁）；
+        // 再按子弹下标顺序提交：目标还活着就是单线程会选中的那架，已经被前面的子弹打掉了才重新查一次
+        int[] targets = bulletTargets;
+        pool.invoke(new Slices(0, bullets.limit()) {
+            @Override
+            void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    targets[i] = bullets.alive[i] ? firstHit(i) : -1;
+                }
+            }
+        });
+        for (int i = 0; i < bullets.limit(); i++) {
+            int enemy = targets[i];
+            if (enemy >= 0 && !enemies.alive[enemy]) {
+                enemy = firstHit(i);
+            }
+            hit(i, enemy);
+        }
+    }
+
+    // 把 [from, to) 对半拆分到 SLICE 大小再执行
+    private abstract static class Slices extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        Slices(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        abstract void run(int from, int to);
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE) {
+                run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            Slices outer = this;
+            invokeAll(new Slices(from, mid) {
+                @Override
+                void run(int from, int to) {
+                    outer.run(from, to);
+                }
+            }, new Slices(mid, to) {
+                @Override
+                void run(int from, int to) {
+                    outer.run(from, to);
+                }
+            });
+        }
+    }
+
+    public PlaneEntities getEnemies() {
+        return enemies;
+    }
+
+    public PlaneEntities getBullets() {
+        return bullets;
+    }
+
+    public PlaneEntities getEnemyShots() {
+        return enemyShots;
+    }
+
+    public PlaneParticles getParticles() {
+        return particles;
+    }
+
+    // 所有活着的实体数
+    public int getEntityCount() {
+        return enemies.size() + bullets.size() + enemyShots.size();
+    }
+
+    // 打开压力模式并设定等级；-1 回到普通模式
+    public void setStressLevel(int level) {
+        stressLevel = level;
+    }
+
+    public int getStressLevel() {
+        return stressLevel;
+    }
+
+    public long getPlayerHits() {
+        return playerHits;
+    }
+
+    public long getUpdateNanos() {
+        return updateNanos;
+    }
+
+    public long getCollisionNanos() {
+        return collisionNanos;
+    }
+
+    public void clearTimings() {
+        updateNanos = 0;
+        collisionNanos = 0;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getPlayerX() {
+        return playerX;
+    }
+
+    public double getPlayerY() {
+        return playerY;
+    }
+
+    // 上一步和这一步之间按 alpha（0..1）插值的位置
+    public double playerX(double alpha) {
+        return previousPlayerX + (playerX - previousPlayerX) * alpha;
+    }
+
+    public double playerY(double alpha) {
+        return previousPlayerY + (playerY - previousPlayerY) * alpha;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+}
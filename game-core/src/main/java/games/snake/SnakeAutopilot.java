@@ -0,0 +1,221 @@
+package games.snake;
+
+import java.util.Arrays;
+
+// 自动驾驶：代替键盘决定每一步往哪转。
+// 先用 BFS 找到苹果的最短路，让一条虚拟的蛇沿路走到苹果，只有那时蛇头还能走到蛇尾（不会把自己困死）才走；
+// 否则追着蛇尾走，再不行就往空地最大的方向走。搜索用的数组都预先分配好，每步不分配内存
+public class SnakeAutopilot {
+    private static final char[] DIRECTIONS = {'U', 'D', 'L', 'R'};
+    private static final int[] DELTA_COL = {0, 0, -1, 1};
+    private static final int[] DELTA_ROW = {-1, 1, 0, 0};
+    // 一次决策最多用掉的轮次：找苹果 1 + 吃苹果安全检查 3 + 四个方向各一次找蛇尾和一次灌水 8
+    private static final int EPOCHS_PER_DECISION = 16;
+
+    private final int cols;
+    private final int rows;
+    private final int[] queue; // BFS 队列
+    private final int[] visited; // visited[cell] == epoch 表示这一轮已经访问过，不用每轮清空
+    private final int[] firstMove; // 从蛇头出发到这个格子的路径的第一步（DIRECTIONS 的下标）
+    private final int[] parent; // BFS 树上的上一个格子，用来还原路径
+    private final int[] distance;
+    private final int[] virtualBody; // 沿路走到苹果之后的虚拟蛇身，0 是蛇头
+    private final int[] bodyMark; // bodyMark[cell] == epoch 表示这个格子在（真实或虚拟的）蛇身上
+    private int epoch;
+
+    public SnakeAutopilot(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        int cells = cols * rows;
+        queue = new int[cells];
+        visited = new int[cells];
+        firstMove = new int[cells];
+        parent = new int[cells];
+        distance = new int[cells];
+        virtualBody = new int[cells];
+        bodyMark = new int[cells];
+    }
+
+    // 决定这一步的方向
+    public char decide(SnakeSimulation simulation) {
+        // 轮次快用完时在决策开始前一起清零：两个标记数组用同一套轮次，只清一个会让旧标记撞上新轮次；
+        // 放在决策中间清还会抹掉 isSafeToEat 正在用的蛇身标记
+        if (epoch > Integer.MAX_VALUE - EPOCHS_PER_DECISION) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(bodyMark, 0);
+            epoch = 0;
+        }
+        SnakeBody snake = simulation.getSnake();
+        int head = snake.cell(0);
+        int tail = snake.cell(snake.length() - 1);
+        // 这一步不长的话，蛇尾会让开
+        int freed = simulation.getPendingGrowth() == 0 && snake.length() > 1 ? tail : -1;
+        char reverse = SnakeSimulation.opposite(simulation.getDirection());
+
+        int apple = simulation.getAppleCell();
+        if (apple >= 0) {
+            int length = search(snake, head, apple, freed, reverse);
+            if (length > 0 && isSafeToEat(simulation, apple, length)) {
+                return DIRECTIONS[firstMove[apple]];
+            }
+        }
+
+        // 追蛇尾：选一个走完之后离蛇尾最远、但仍然能到达蛇尾的方向，给身体腾出空间
+        int best = -1;
+        int bestDistance = -1;
+        for (int move = 0; move < 4; move++) {
+            int next = neighbor(head, move);
+            if (next < 0 || DIRECTIONS[move] == reverse || !passable(snake, next, freed)) {
+                continue;
+            }
+            int newTail = snake.length() > 1 && freed >= 0 ? snake.cell(snake.length() - 2) : tail;
+            int d = next == newTail ? 0 : search(snake, next, newTail, freed, SnakeSimulation.NONE);
+            if (d > bestDistance) {
+                bestDistance = d;
+                best = move;
+            }
+        }
+        if (best >= 0) {
+            return DIRECTIONS[best];
+        }
+
+        // 到不了蛇尾：往能到达的格子最多的方向走
+        int bestArea = -1;
+        for (int move = 0; move < 4; move++) {
+            int next = neighbor(head, move);
+            if (next < 0 || DIRECTIONS[move] == reverse || !passable(snake, next, freed)) {
+                continue;
+            }
+            int area = flood(snake, next, freed);
+            if (area > bestArea) {
+                bestArea = area;
+                best = move;
+            }
+        }
+        return best >= 0 ? DIRECTIONS[best] : SnakeSimulation.NONE;
+    }
+
+    private boolean isSafeToEat(SnakeSimulation simulation, int apple, int pathLength) {
+        // 虚拟的蛇沿 BFS 路径走到苹果：蛇头是路径（倒序），后面接原来的身体，
+        // 长度按还要长的节数算；然后检查虚拟蛇头能不能走到虚拟蛇尾
+        SnakeBody snake = simulation.getSnake();
+        int bodyStamp = nextEpoch();
+        for (int i = 0; i < snake.length(); i++) {
+            bodyMark[snake.cell(i)] = bodyStamp;
+        }
+        int length = snake.length() + Math.min(pathLength, simulation.getPendingGrowth());
+        int size = 0;
+        for (int cell = apple; size < pathLength && size < length; cell = parent[cell]) {
+            virtualBody[size++] = cell;
+        }
+        for (int i = 0; size < length; i++) {
+            virtualBody[size++] = snake.cell(i);
+        }
+        if (length == 1) {
+            return true;
+        }
+        int virtualStamp = nextEpoch();
+        for (int i = 0; i < length; i++) {
+            visited[virtualBody[i]] = virtualStamp; // 先借 visited 标出虚拟蛇身
+        }
+        return reachesTail(snake, bodyStamp, virtualStamp, apple, virtualBody[length - 1]);
+    }
+
+    private boolean reachesTail(SnakeBody snake, int bodyStamp, int virtualStamp, int from, int tail) {
+        // 虚拟局面里的 BFS：障碍物是占用位图里不属于真实蛇身的格子，蛇身是 visited 里标出的虚拟蛇身
+        int head = 0;
+        int size = 0;
+        queue[size++] = from;
+        int seen = nextEpoch();
+        bodyMark[from] = seen;
+        while (head < size) {
+            int cell = queue[head++];
+            for (int move = 0; move < 4; move++) {
+                int next = neighbor(cell, move);
+                if (next < 0 || bodyMark[next] == seen) {
+                    continue;
+                }
+                if (next == tail) {
+                    return true;
+                }
+                boolean obstacle = snake.isOccupied(next % cols, next / cols) && bodyMark[next] != bodyStamp;
+                if (obstacle || visited[next] == virtualStamp) {
+                    continue;
+                }
+                bodyMark[next] = seen;
+                queue[size++] = next;
+            }
+        }
+        return false;
+    }
+
+    // 从 from 到 target 的 BFS 最短距离，target 即使被占用也算可达；到不了返回 -1。
+    // 同时记下每个格子路径的第一步，供调用方取用
+    private int search(SnakeBody snake, int from, int target, int freed, char forbidden) {
+        int stamp = nextEpoch();
+        int head = 0;
+        int size = 0;
+        visited[from] = stamp;
+        distance[from] = 0;
+        queue[size++] = from;
+        while (head < size) {
+            int cell = queue[head++];
+            for (int move = 0; move < 4; move++) {
+                if (cell == from && DIRECTIONS[move] == forbidden) {
+                    continue;
+                }
+                int next = neighbor(cell, move);
+                if (next < 0 || visited[next] == stamp) {
+                    continue;
+                }
+                visited[next] = stamp;
+                distance[next] = distance[cell] + 1;
+                parent[next] = cell;
+                firstMove[next] = cell == from ? move : firstMove[cell];
+                if (next == target) {
+                    return distance[next];
+                }
+                if (passable(snake, next, freed)) {
+                    queue[size++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int flood(SnakeBody snake, int from, int freed) {
+        int stamp = nextEpoch();
+        int head = 0;
+        int size = 0;
+        visited[from] = stamp;
+        queue[size++] = from;
+        while (head < size) {
+            int cell = queue[head++];
+            for (int move = 0; move < 4; move++) {
+                int next = neighbor(cell, move);
+                if (next >= 0 && visited[next] != stamp && passable(snake, next, freed)) {
+                    visited[next] = stamp;
+                    queue[size++] = next;
+                }
+            }
+        }
+        return size;
+    }
+
+    private boolean passable(SnakeBody snake, int cell, int freed) {
+        return cell == freed || !snake.isOccupied(cell % cols, cell / cols);
+    }
+
+    private int neighbor(int cell, int move) {
+        int col = cell % cols + DELTA_COL[move];
+        int row = cell / cols + DELTA_ROW[move];
+        if (col < 0 || col >= cols || row < 0 || row >= rows) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+
+    private int nextEpoch() {
+        return ++epoch;
+    }
+}
@@ -0,0 +1,181 @@
+package games.snake;
+
+import java.util.Arrays;
+
+// 蛇身：格子下标存在环形缓冲区里，移动一步只写一次蛇头、释放一次蛇尾；
+// occupied 位图同时记录蛇身和障碍物，撞自己和撞障碍物都是一次位测试；
+// free 随时维护剩下的空格子，生成苹果、道具和障碍物时直接从里面取
+public class SnakeBody {
+    private final int cols; // 网格列数
+    private final int rows; // 网格行数
+    private final int[] cells; // 环形缓冲区，容量等于格子总数，蛇再长也不用搬数据
+    private final long[] occupied; // 蛇身和障碍物占用的格子
+    private final SnakeFreeCells free; // 没有被蛇身、障碍物和道具占用的格子
+
+    private int head; // 蛇头在缓冲区里的位置
+    private int length; // 蛇的长度
+
+    public SnakeBody(int cols, int rows) {
+        if (cols <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Grid size must be positive: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.cells = new int[cols * rows];
+        this.occupied = new long[(cols * rows + 63) >>> 6];
+        this.free = new SnakeFreeCells(cols * rows);
+    }
+
+    // 清空网格（包括障碍物），蛇只剩 (col, row) 一格
+    public void reset(int col, int row) {
+        Arrays.fill(occupied, 0L);
+        free.fill();
+        head = 0;
+        length = 1;
+        int cell = row * cols + col;
+        cells[0] = cell;
+        occupied[cell >>> 6] |= 1L << cell;
+        free.remove(cell);
+    }
+
+    // 按快照恢复：放回障碍物和蛇身（body[0] 是蛇头）；空格子索引有排列就按原来的排列恢复，
+    // 没有（快照拍在刚排好序的时候）就按占用位图重建，苹果和道具所在的格子也不算空
+    void restore(int[] body, int length, int[] obstacles, int obstacleCount, int[] freeOrder, int freeCount,
+                 int appleCell, int itemCell) {
+        Arrays.fill(occupied, 0L);
+        for (int i = 0; i < obstacleCount; i++) {
+            int cell = obstacles[i];
+            occupied[cell >>> 6] |= 1L << cell;
+        }
+        head = 0;
+        this.length = length;
+        for (int i = 0; i < length; i++) {
+            int cell = body[i];
+            cells[i] = cell;
+            occupied[cell >>> 6] |= 1L << cell;
+        }
+        if (freeOrder != null) {
+            free.restore(freeOrder, freeCount);
+            return;
+        }
+        free.fill();
+        for (int cell = 0; cell < cells.length; cell++) {
+            if ((occupied[cell >>> 6] & (1L << cell)) != 0 || cell == appleCell || cell == itemCell) {
+                free.remove(cell);
+            }
+        }
+        free.sort();
+    }
+
+    int[] freeOrder() {
+        return free.order();
+    }
+
+    // 空格子索引按格子编号排序，之后的随机取格子只取决于哪些格子是空的
+    void sortFree() {
+        free.sort();
+    }
+
+    // 标记障碍物
+    public void block(int cell) {
+        occupied[cell >>> 6] |= 1L << cell;
+        free.remove(cell);
+    }
+
+    // 均匀随机取一个空格子留给苹果、道具或障碍物，之后不会再被取到；没有空格子时返回 -1
+    public int spawn(long randomBits) {
+        return free.take(randomBits);
+    }
+
+    public int freeCount() {
+        return free.size();
+    }
+
+    public boolean inBounds(int col, int row) {
+        return col >= 0 && col < cols && row >= 0 && row < rows;
+    }
+
+    public boolean isOccupied(int col, int row) {
+        int cell = row * cols + col;
+        return (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    // 蛇头移到 (col, row)，grow 为 true 时蛇尾不动；先放开蛇尾，所以可以跟着自己的尾巴走。
+    // 出界、撞到身体或障碍物时返回 false，蛇保持原样
+    public boolean advance(int col, int row, boolean grow) {
+        if (!inBounds(col, row)) {
+            return false;
+        }
+        int tail = cells[tailSlot()];
+        if (!grow) {
+            occupied[tail >>> 6] &= ~(1L << tail);
+        }
+        int cell = row * cols + col;
+        if ((occupied[cell >>> 6] & (1L << cell)) != 0) {
+            if (!grow) {
+                occupied[tail >>> 6] |= 1L << tail;
+            }
+            return false;
+        }
+        if (!grow) {
+            length--;
+            free.add(tail);
+        }
+        head = head == 0 ? cells.length - 1 : head - 1;
+        cells[head] = cell;
+        occupied[cell >>> 6] |= 1L << cell;
+        free.remove(cell); // 踩到道具时这个格子本来就不在空格子里
+        length++;
+        return true;
+    }
+
+    // 缩短一节（至少保留蛇头）
+    public void shrink() {
+        if (length <= 1) {
+            return;
+        }
+        int tail = cells[tailSlot()];
+        occupied[tail >>> 6] &= ~(1L << tail);
+        free.add(tail);
+        length--;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // 第 i 节的格子下标，0 是蛇头
+    public int cell(int i) {
+        int slot = head + i;
+        return cells[slot >= cells.length ? slot - cells.length : slot];
+    }
+
+    public int col(int i) {
+        return cell(i) % cols;
+    }
+
+    public int row(int i) {
+        return cell(i) / cols;
+    }
+
+    public int headCol() {
+        return col(0);
+    }
+
+    public int headRow() {
+        return row(0);
+    }
+
+    private int tailSlot() {
+        int slot = head + length - 1;
+        return slot >= cells.length ? slot - cells.length : slot;
+    }
+}
@@ -0,0 +1,97 @@
+package games.snake;
+
+// 空格子索引：cells[0, size) 是所有空格子，position[cell] 是它在数组里的位置；
+// 删除时和最后一个交换，所以增、删、随机取一个空格子都是 O(1)，不分配内存也不重试
+public class SnakeFreeCells {
+    private final int[] cells;
+    private final int[] position;
+    private int size;
+
+    public SnakeFreeCells(int cellCount) {
+        cells = new int[cellCount];
+        position = new int[cellCount];
+        fill();
+    }
+
+    // 所有格子都变成空的
+    public void fill() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+            position[i] = i;
+        }
+        size = cells.length;
+    }
+
+    // 按格子编号重排：空格子按编号从小到大排在前面，其余的排在后面。
+    // 排好之后的顺序只取决于哪些格子是空的，快照就不用存排列了
+    public void sort() {
+        int free = 0;
+        int taken = size;
+        // 按编号从小到大只改当前格子自己的 position，后面格子的 position 还没动，可以照常判断空不空
+        for (int cell = 0; cell < cells.length; cell++) {
+            position[cell] = position[cell] < size ? free++ : taken++;
+        }
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[position[cell]] = cell;
+        }
+    }
+
+    // 当前的排列（前 size 个是空格子）；随机取格子依赖这个顺序，没排过序时快照要原样保存它
+    public int[] order() {
+        return cells.clone();
+    }
+
+    public void restore(int[] order, int size) {
+        System.arraycopy(order, 0, cells, 0, cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            position[cells[i]] = i;
+        }
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int cell) {
+        return position[cell] < size;
+    }
+
+    public void add(int cell) {
+        int at = position[cell];
+        if (at < size) {
+            return;
+        }
+        // cell 在 size 之后，和第一个非空位置交换
+        swap(at, size);
+        size++;
+    }
+
+    public void remove(int cell) {
+        int at = position[cell];
+        if (at >= size) {
+            return;
+        }
+        size--;
+        swap(at, size);
+    }
+
+    // 用一个 64 位随机数均匀取出一个空格子（高32位乘 size 取高位，不用取模）；没有空格子时返回 -1
+    public int take(long randomBits) {
+        if (size == 0) {
+            return -1;
+        }
+        int cell = cells[(int) (((randomBits >>> 32) * size) >>> 32)];
+        remove(cell);
+        return cell;
+    }
+
+    private void swap(int i, int j) {
+        int a = cells[i];
+        int b = cells[j];
+        cells[i] = b;
+        cells[j] = a;
+        position[b] = i;
+        position[a] = j;
+    }
+}
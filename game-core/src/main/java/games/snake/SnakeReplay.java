@@ -0,0 +1,342 @@
+package games.snake;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+// 贪吃蛇录像：模拟是确定性的，所以只存种子和真正改变了方向的转向。
+// 每次转向存成一个 varint：(距上一条记录的步数 << 3) | (方向 + 1)，通常只占一个字节；
+// 每走 KEYFRAME_INTERVAL 步记一条 (距上一条记录的步数 << 3) | CHECKPOINT 并把缓冲写进文件，
+// 录制中途进程没了，录像也能放到最后一个检查点。
+// 结尾是 (距上一条记录的步数 << 3) | 0，后面跟最终得分和是否结束，回放时用来校验。
+// 回放时每隔 KEYFRAME_INTERVAL 步存一个快照，跳到任意一步只需从最近的快照往后模拟
+public class SnakeReplay {
+    private static final int MAGIC = 0x534E4B52; // "SNKR"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 4 + 1 + 4 + 4 + 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CHECKPOINT = 5;
+    // 和模拟给空格子索引排序的间隔一致，这样每个快照都不用存空格子的排列
+    static final int KEYFRAME_INTERVAL = SnakeSimulation.FREE_SORT_INTERVAL;
+    private static final char[] DIRECTIONS = {'U', 'D', 'L', 'R'};
+
+    private SnakeReplay() {
+    }
+
+    // 开始录制：写文件头，之后通过 step(turn) 推进模拟并记下转向
+    public static Recorder record(Path file, SnakeSimulation simulation) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return new Recorder(channel, simulation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 读入整份录像，回放用自己的模拟
+    public static Player open(Path file) {
+        try {
+            return new Player(file, ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class Recorder implements Closeable {
+        private final FileChannel channel;
+        private final SnakeSimulation simulation;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long lastRecordTick; // 上一条记录（转向或检查点）在第几步
+        private boolean closed;
+
+        Recorder(FileChannel channel, SnakeSimulation simulation) throws IOException {
+            this.channel = channel;
+            this.simulation = simulation;
+            buffer.putInt(MAGIC).put((byte) VERSION)
+                    .putInt(simulation.getCols()).putInt(simulation.getRows()).putLong(simulation.getSeed());
+            lastRecordTick = simulation.getTick();
+        }
+
+        // 推进模拟一步，只有真正改变方向的转向才写进录像；每到检查点把缓冲写进文件
+        public boolean step(char turn) {
+            if (simulation.changesDirection(turn)) {
+                writeVarint((simulation.getTick() - lastRecordTick) << 3 | (directionIndex(turn) + 1));
+                lastRecordTick = simulation.getTick();
+            }
+            boolean alive = simulation.step(turn);
+            if (alive && simulation.getTick() % KEYFRAME_INTERVAL == 0) {
+                writeVarint((simulation.getTick() - lastRecordTick) << 3 | CHECKPOINT);
+                lastRecordTick = simulation.getTick();
+                drain();
+            }
+            return alive;
+        }
+
+        public SnakeSimulation getSimulation() {
+            return simulation;
+        }
+
+        // 写结尾并关闭；游戏结束或放弃时调用
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeVarint((simulation.getTick() - lastRecordTick) << 3);
+                writeVarint(simulation.getScore());
+                ensure(1);
+                buffer.put((byte) (simulation.isOver() ? 1 : 0));
+                drain();
+            } finally {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    public static class Player {
+        private final SnakeSimulation simulation;
+        private final long[] turnTicks; // 第 i 次转向发生在第几步
+        private final char[] turnDirections;
+        private final long endTick; // 录像结束时的步数
+        private final int finalScore;
+        private final boolean finalOver;
+        private final boolean complete; // 有结尾；没有的是录制中途断掉的，只能放到最后一个检查点
+        private final List<SnakeSimulation.Snapshot> keyframes = new ArrayList<>(); // 第 i 个是第 i * KEYFRAME_INTERVAL 步
+        private int nextTurn; // 下一个要应用的转向
+
+        Player(Path file, ByteBuffer buffer) throws IOException {
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                throw new IOException("Not a snake replay: " + file);
+            }
+            int cols = buffer.getInt();
+            int rows = buffer.getInt();
+            long seed = buffer.getLong();
+            simulation = new SnakeSimulation(cols, rows, seed);
+
+            long[] ticks = new long[64];
+            char[] directions = new char[64];
+            int count = 0;
+            long tick = 0;
+            long lastTick = 0; // 最后一条完整记录所在的步数
+            boolean ended = false;
+            while (buffer.hasRemaining()) {
+                long value = readVarint(buffer, file);
+                tick += value >>> 3;
+                int code = (int) (value & 7);
+                if (code == 0) {
+                    ended = true;
+                    break;
+                }
+                if (code == CHECKPOINT) {
+                    lastTick = tick;
+                    continue;
+                }
+                if (code > DIRECTIONS.length) {
+                    throw new IOException("Corrupt snake replay: " + file);
+                }
+                if (count == ticks.length) {
+                    ticks = Arrays.copyOf(ticks, count * 2);
+                    directions = Arrays.copyOf(directions, count * 2);
+                }
+                ticks[count] = tick;
+                directions[count] = DIRECTIONS[code - 1];
+                count++;
+                lastTick = tick;
+            }
+            turnTicks = Arrays.copyOf(ticks, count);
+            turnDirections = Arrays.copyOf(directions, count);
+            complete = ended;
+            if (ended) {
+                endTick = tick;
+                finalScore = (int) readVarint(buffer, file);
+                if (!buffer.hasRemaining()) {
+                    throw new IOException("Truncated snake replay: " + file);
+                }
+                finalOver = buffer.get() != 0;
+            } else {
+                // 没有结尾：只知道到最后一条记录为止的对局
+                endTick = lastTick;
+                finalScore = -1;
+                finalOver = false;
+            }
+            keyframes.add(simulation.snapshot());
+        }
+
+        public SnakeSimulation getSimulation() {
+            return simulation;
+        }
+
+        public long getEndTick() {
+            return endTick;
+        }
+
+        public int getTurnCount() {
+            return turnTicks.length;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public boolean isFinished() {
+            return simulation.getTick() >= endTick || simulation.isOver();
+        }
+
+        // 按录像推进一步，路过整 KEYFRAME_INTERVAL 步时补存快照
+        public boolean step() {
+            if (isFinished()) {
+                return false;
+            }
+            long tick = simulation.getTick();
+            char turn = SnakeSimulation.NONE;
+            if (nextTurn < turnTicks.length && turnTicks[nextTurn] == tick) {
+                turn = turnDirections[nextTurn++];
+            }
+            boolean alive = simulation.step(turn);
+            long now = simulation.getTick();
+            if (now % KEYFRAME_INTERVAL == 0 && now / KEYFRAME_INTERVAL == keyframes.size()) {
+                keyframes.add(simulation.snapshot());
+            }
+            return alive;
+        }
+
+        // 跳到第 tick 步：从不晚于它的最近快照恢复，再往后模拟
+        public void seek(long tick) {
+            long target = Math.max(0, Math.min(tick, endTick));
+            int keyframe = (int) Math.min(target / KEYFRAME_INTERVAL, keyframes.size() - 1);
+            if (target < simulation.getTick() || keyframe * (long) KEYFRAME_INTERVAL > simulation.getTick()) {
+                SnakeSimulation.Snapshot snapshot = keyframes.get(keyframe);
+                simulation.restore(snapshot);
+                nextTurn = firstTurnAtOrAfter(snapshot.getTick());
+            }
+            while (simulation.getTick() < target && !simulation.isOver()) {
+                step();
+            }
+        }
+
+        // 一直放到结尾，检查结果和录像里记的一致；没有结尾的只检查能放到最后一条记录
+        public boolean verify() {
+            seek(endTick);
+            if (!complete) {
+                return simulation.getTick() == endTick;
+            }
+            return simulation.getTick() == endTick && simulation.getScore() == finalScore
+                    && simulation.isOver() == finalOver;
+        }
+
+        private int firstTurnAtOrAfter(long tick) {
+            int index = Arrays.binarySearch(turnTicks, tick);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private static long readVarint(ByteBuffer buffer, Path file) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (!buffer.hasRemaining()) {
+                    throw new IOException("Truncated snake replay: " + file);
+                }
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt snake replay: " + file);
+        }
+    }
+
+    private static int directionIndex(char direction) {
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if (DIRECTIONS[i] == direction) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not a direction: " + direction);
+    }
+
+    public static void main(String[] args) {
+        // 参数：录像文件或目录；逐个回放并校验结果
+        long files = 0;
+        long failed = 0;
+        long bytes = 0;
+        long turns = 0;
+        long start = System.nanoTime();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            List<Path> replays = new ArrayList<>();
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> stream = Files.list(path)) {
+                    stream.filter(Files::isRegularFile).forEach(replays::add);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                replays.add(path);
+            }
+            for (Path replay : replays) {
+                Player player = open(replay);
+                files++;
+                turns += player.getTurnCount();
+                try {
+                    bytes += Files.size(replay);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (!player.verify()) {
+                    failed++;
+                    System.out.println("Mismatch: " + replay);
+                }
+            }
+        }
+        System.out.printf("Verified %d replays (%d failed), %d turns, %.2f bytes/turn, %.0f replays/s%n",
+                files, failed, turns, turns == 0 ? 0 : (double) bytes / turns, files * 1e9 / Math.max(1, System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,183 @@
+package games.snake;
+
+import games.core.SplitMix64;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// 无界面的自动对局：在 fork-join 线程池上并行跑大量带种子的对局（自动驾驶控制），
+// 统计得分分布和每秒对局数，用来调难度；第 index 局的种子只由基础种子和局号决定，结果与线程数无关
+public class SnakeSelfPlay {
+    private static final int LEAF_GAMES = 64; // 一个叶子任务串行跑的对局数
+
+    private final int cols;
+    private final int rows;
+    private final long seed;
+    private final long stallSteps; // 这么多步没吃到苹果就判超时，防止自动驾驶绕圈停不下来
+
+    public SnakeSelfPlay(int cols, int rows, long seed) {
+        this.cols = cols;
+        this.rows = rows;
+        this.seed = seed;
+        this.stallSteps = (long) cols * rows * 4;
+    }
+
+    // 汇总结果：得分直方图（下标是得分）、总步数、超时局数
+    public static class Report {
+        private final long[] scores;
+        private long games;
+        private long steps;
+        private long timeouts;
+        private long elapsedNanos;
+
+        Report(int maxScore) {
+            scores = new long[maxScore + 1];
+        }
+
+        void record(int score, long gameSteps, boolean timedOut) {
+            scores[Math.min(score, scores.length - 1)]++;
+            games++;
+            steps += gameSteps;
+            if (timedOut) {
+                timeouts++;
+            }
+        }
+
+        Report merge(Report other) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] += other.scores[i];
+            }
+            games += other.games;
+            steps += other.steps;
+            timeouts += other.timeouts;
+            return this;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getSteps() {
+            return steps;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public double getGamesPerSecond() {
+            return games * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        public double getStepsPerSecond() {
+            return steps * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        public double getMeanScore() {
+            double sum = 0;
+            for (int i = 0; i < scores.length; i++) {
+                sum += (double) i * scores[i];
+            }
+            return games == 0 ? 0 : sum / games;
+        }
+
+        public int scorePercentile(double percentile) {
+            long rank = (long) Math.ceil(games * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < scores.length; i++) {
+                seen += scores[i];
+                if (seen >= rank && seen > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        public int getMaxScore() {
+            for (int i = scores.length - 1; i >= 0; i--) {
+                if (scores[i] > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("games=%d games/s=%.0f steps/s=%.0f timeouts=%d score mean=%.2f p10=%d p50=%d p90=%d p99=%d max=%d",
+                    games, getGamesPerSecond(), getStepsPerSecond(), timeouts, getMeanScore(),
+                    scorePercentile(10), scorePercentile(50), scorePercentile(90), scorePercentile(99), getMaxScore());
+        }
+    }
+
+    public Report run(long games, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        Report report = pool.invoke(new Batch(0, games));
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    // 让自动驾驶下完一局，返回走的步数；连续 stallSteps 步没得分时停下
+    public static long play(SnakeSimulation simulation, SnakeAutopilot autopilot, long seed, long stallSteps) {
+        simulation.reset(seed);
+        long lastScoreTick = 0;
+        int score = 0;
+        while (!simulation.isOver() && simulation.getTick() - lastScoreTick < stallSteps) {
+            simulation.step(autopilot.decide(simulation));
+            simulation.clearDirty();
+            if (simulation.getScore() != score) {
+                score = simulation.getScore();
+                lastScoreTick = simulation.getTick();
+            }
+        }
+        return simulation.getTick();
+    }
+
+    // 对半拆分局号区间，叶子任务复用同一个模拟和自动驾驶
+    private class Batch extends RecursiveTask<Report> {
+        private final long from;
+        private final long to;
+
+        Batch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Report compute() {
+            if (to - from > LEAF_GAMES) {
+                long mid = (from + to) >>> 1;
+                Batch left = new Batch(from, mid);
+                left.fork();
+                Report right = new Batch(mid, to).compute();
+                return left.join().merge(right);
+            }
+            Report report = new Report(cols * rows);
+            SnakeSimulation simulation = new SnakeSimulation(cols, rows, seed);
+            SnakeAutopilot autopilot = new SnakeAutopilot(cols, rows);
+            for (long index = from; index < to; index++) {
+                long gameSteps = play(simulation, autopilot, SplitMix64.gameSeed(seed, index), stallSteps);
+                report.record(simulation.getScore(), gameSteps, !simulation.isOver());
+            }
+            return report;
+        }
+    }
+
+    public static void main(String[] args) {
+        // 参数：[对局数 列数 行数 种子 并行度]，默认 20x20 跑一千局
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000L;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+        int parallelism = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("Snake self-play: %d games, %dx%d, seed %d, parallelism %d%n",
+                games, cols, rows, seed, parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            System.out.println(new SnakeSelfPlay(cols, rows, seed).run(games, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
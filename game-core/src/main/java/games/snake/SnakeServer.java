@@ -0,0 +1,632 @@
+package games.snake;
+
+import games.core.SplitMix64;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 多人贪吃蛇服务器：每个连接是一局独立的游戏（各自一张棋盘，规则就是 SnakeSimulation）。
+// 一个选择器线程负责接入和读输入；会话平均分到若干分片，每个分片是调度线程池上的一个定时任务，
+// 每 TICK_MILLIS 毫秒批量推进分片里的所有会话，并在同一线程里把这一步的状态帧直接写到非阻塞的套接字上。
+// 写不完的部分留给选择器线程发送；积压期间丢掉增量帧，发完后补一个整帧，慢客户端不会拖住别人。
+//
+// 客户端发送单字节命令：'U' 'D' 'L' 'R' 转向（同一步里以最后一个为准），'N' 重开一局。
+// 服务器发送的帧（大端）：int 长度（不含这四个字节）+ byte 类型 + 内容
+//   FULL  'F'：long 步数, int 得分, byte 是否结束, long 种子, short 列数, short 行数,
+//              int 障碍数 + 障碍格子, int 蛇长 + 蛇身格子（蛇头在前）, int 苹果格子, int 道具格子, byte 道具类型
+//   DELTA 'D'：long 步数, int 得分, byte 是否结束, byte 道具类型, short 格子数 + 每个格子 (int 格子, byte 内容)
+// 格子编号是 row * cols + col，没有的苹果或道具是 -1；增量帧的格子内容见 EMPTY..ITEM
+public class SnakeServer implements Closeable {
+    public static final int DEFAULT_PORT = 7777;
+    static final int TICK_MILLIS = 10; // 调度粒度；每局按自己的 delay 累计，到时间才走一步
+    private static final int MAX_STEPS_PER_TICK = 2; // 过载时一局一轮最多补走的步数，再多的时间直接丢掉
+    private static final int SHARDS_PER_THREAD = 8;
+    private static final int READ_BUFFER_SIZE = 256;
+    private static final int ACCEPT_BACKOFF_MILLIS = 100; // 接入失败（多半是文件描述符用完）后暂停接入的时间
+
+    static final byte FULL = 'F';
+    static final byte DELTA = 'D';
+    static final byte RESTART = 'N';
+    static final byte EMPTY = 0;
+    static final byte HEAD = 1;
+    static final byte BODY = 2;
+    static final byte APPLE = 3;
+    static final byte ITEM = 4;
+
+    private final int cols;
+    private final int rows;
+    private final long seed;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SelectionKey acceptKey;
+    private final ScheduledExecutorService scheduler;
+    private final Shard[] shards;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE); // 只在选择器线程用
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final Thread selectorThread;
+    private int nextSessionId;
+    private volatile boolean running = true;
+
+    public SnakeServer(int port, int threads, int cols, int rows, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one tick thread: " + threads);
+        }
+        // 帧里的列数、行数是 short，整帧的缓冲区按格子数分配
+        if (cols < 1 || rows < 1 || cols > Short.MAX_VALUE || rows > Short.MAX_VALUE
+                || (long) cols * rows > (Integer.MAX_VALUE - 64) / 4) {
+            throw new IllegalArgumentException("Board size out of range: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.seed = seed;
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+            serverChannel.configureBlocking(false);
+            acceptKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "snake-tick-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        shards = new Shard[threads * SHARDS_PER_THREAD];
+        long start = System.nanoTime();
+        long period = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+        for (int i = 0; i < shards.length; i++) {
+            // 各分片错开一点开始，免得同一时刻一起抢线程。用固定间隔而不是固定频率：
+            // 过载时不会把错过的轮次排队补跑，每轮按实际经过的时间推进
+            long offset = period * i / shards.length;
+            shards[i] = new Shard(start + offset - period);
+            scheduler.scheduleWithFixedDelay(shards[i], offset, period, TimeUnit.NANOSECONDS);
+        }
+        selectorThread = new Thread(this::selectLoop, "snake-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    // 一帧最多多少字节：整帧每个障碍物和蛇身格子 4 字节，增量帧最多 DIRTY_CAPACITY 个 5 字节的格子
+    static int frameLimit(int cols, int rows) {
+        return Math.max(64 + 4 * cols * rows, 21 + 5 * SnakeSimulation.DIRTY_CAPACITY);
+    }
+
+    // 一个连接对应的一局游戏
+    private static final class Session {
+        final int id;
+        final SocketChannel channel;
+        final SelectionKey key; // 关注的事件只在 synchronized (this) 里改，和 backlog 一起变
+        SnakeSimulation simulation; // 分片线程接手时才创建，之后只在分片线程用
+        final AtomicInteger input = new AtomicInteger(SnakeSimulation.NONE); // 最近一次收到的命令
+        long elapsedNanos; // 距上一步累计的时间，只在分片线程用
+        boolean needsFull = true; // 下一帧必须是整帧：刚连上、重开了或者丢过增量帧
+        ByteBuffer backlog; // 没写完的帧，在 synchronized (this) 里访问
+        final AtomicBoolean closed = new AtomicBoolean(); // 分片线程和选择器线程都可能关它，只有抢到的那个去收尾
+
+        Session(int id, SocketChannel channel, SelectionKey key) {
+            this.id = id;
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    // 一批会话，由调度线程池按固定频率推进；同一个分片不会被两个线程同时执行
+    private final class Shard implements Runnable {
+        private final List<Session> members = new ArrayList<>();
+        private final Queue<Session> joining = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer frame = ByteBuffer.allocateDirect(frameLimit(cols, rows));
+        private long lastStart; // 上一轮开始的时间
+        // 统计：每轮的延迟，即上一轮开始后 TICK_MILLIS 到这一轮发完帧之间的时间，
+        // 也就是这期间到期的一步最晚多久才发出去；按 2 的幂分桶（微秒）
+        private final long[] latencyBuckets = new long[32];
+        private long maxLatencyNanos;
+        private long frames;
+        private long bytes;
+        private long dropped;
+
+        Shard(long lastStart) {
+            this.lastStart = lastStart;
+        }
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            long due = lastStart + TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+            long elapsed = now - lastStart;
+            lastStart = now;
+            // 新会话的棋盘在这里建，不占选择器线程
+            for (Session session = joining.poll(); session != null; session = joining.poll()) {
+                session.simulation = new SnakeSimulation(cols, rows, SplitMix64.gameSeed(seed, session.id));
+                members.add(session);
+            }
+            long tickFrames = 0;
+            long tickBytes = 0;
+            long tickDropped = 0;
+            for (int i = 0; i < members.size(); i++) {
+                Session session = members.get(i);
+                if (session.closed.get()) {
+                    // 交换删除，不挪动后面的元素
+                    members.set(i, members.get(members.size() - 1));
+                    members.remove(members.size() - 1);
+                    i--;
+                    continue;
+                }
+                // 定时任务抛出异常后调度器会悄悄取消它，整个分片从此不再推进；
+                // 所以异常在这里按会话接住，只关掉出问题的那个，下一轮把它移出分片
+                try {
+                    if (!advance(session, elapsed)) {
+                        continue;
+                    }
+                    encode(session);
+                    int written = send(session);
+                    if (written < 0) {
+                        tickDropped++;
+                    } else {
+                        tickFrames++;
+                        tickBytes += written;
+                    }
+                } catch (RuntimeException e) {
+                    System.err.printf("Snake session %d failed, closing it: %s%n", session.id, e);
+                    closeSession(session);
+                }
+            }
+            long latency = Math.max(0, System.nanoTime() - due);
+            synchronized (this) {
+                latencyBuckets[Math.min(latencyBuckets.length - 1, 64 - Long.numberOfLeadingZeros(latency / 1000))]++;
+                maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+                frames += tickFrames;
+                bytes += tickBytes;
+                dropped += tickDropped;
+            }
+        }
+
+        // 处理命令并按时间推进；这一步需要发帧时返回 true
+        private boolean advance(Session session, long elapsed) {
+            SnakeSimulation simulation = session.simulation;
+            int command = session.input.getAndSet(SnakeSimulation.NONE);
+            if (command == RESTART) {
+                simulation.reset(SplitMix64.gameSeed(simulation.getSeed(), session.id));
+                session.elapsedNanos = 0;
+                session.needsFull = true;
+                command = SnakeSimulation.NONE;
+            }
+            int stepped = 0;
+            session.elapsedNanos += elapsed;
+            long delay = TimeUnit.MILLISECONDS.toNanos(simulation.getDelay());
+            while (!simulation.isOver() && session.elapsedNanos >= delay) {
+                session.elapsedNanos -= delay;
+                simulation.step((char) command);
+                command = SnakeSimulation.NONE;
+                if (++stepped == MAX_STEPS_PER_TICK) {
+                    session.elapsedNanos = Math.min(session.elapsedNanos, delay);
+                    break;
+                }
+            }
+            if (command != SnakeSimulation.NONE && !simulation.isOver()) {
+                // 这一轮没走到，转向留给下一轮，除非期间又来了新的
+                session.input.compareAndSet(SnakeSimulation.NONE, command);
+            }
+            return stepped > 0 || session.needsFull;
+        }
+
+        private void encode(Session session) {
+            SnakeSimulation simulation = session.simulation;
+            ByteBuffer out = frame;
+            out.clear();
+            out.putInt(0); // 长度最后补
+            if (session.needsFull || simulation.needsFullRedraw()) {
+                out.put(FULL).putLong(simulation.getTick()).putInt(simulation.getScore())
+                        .put((byte) (simulation.isOver() ? 1 : 0)).putLong(simulation.getSeed())
+                        .putShort((short) cols).putShort((short) rows);
+                out.putInt(simulation.getObstacleCount());
+                for (int i = 0; i < simulation.getObstacleCount(); i++) {
+                    out.putInt(simulation.obstacle(i));
+                }
+                SnakeBody snake = simulation.getSnake();
+                out.putInt(snake.length());
+                for (int i = 0; i < snake.length(); i++) {
+                    out.putInt(snake.cell(i));
+                }
+                out.putInt(simulation.getAppleCell()).putInt(simulation.getSpecialItemCell())
+                        .put((byte) simulation.getSpecialItemType());
+                session.needsFull = false;
+            } else {
+                out.put(DELTA).putLong(simulation.getTick()).putInt(simulation.getScore())
+                        .put((byte) (simulation.isOver() ? 1 : 0)).put((byte) simulation.getSpecialItemType())
+                        .putShort((short) simulation.dirtyCount()); // 不超过 DIRTY_CAPACITY
+                for (int i = 0; i < simulation.dirtyCount(); i++) {
+                    int cell = simulation.dirtyCell(i);
+                    out.putInt(cell).put(cellKind(simulation, cell));
+                }
+            }
+            simulation.clearDirty();
+            out.putInt(0, out.position() - 4);
+            out.flip();
+        }
+
+        // 直接写套接字；返回写进去的字节数，积压时丢帧返回 -1
+        private int send(Session session) {
+            synchronized (session) {
+                if (session.backlog != null) {
+                    session.needsFull = true;
+                    return -1;
+                }
+                int size = frame.remaining();
+                try {
+                    session.channel.write(frame);
+                } catch (IOException e) {
+                    closeSession(session);
+                    return -1;
+                }
+                if (frame.hasRemaining()) {
+                    // 套接字缓冲满了：剩下的拷出来，让选择器线程在可写时接着发
+                    ByteBuffer backlog = ByteBuffer.allocate(frame.remaining());
+                    backlog.put(frame).flip();
+                    session.backlog = backlog;
+                    try {
+                        session.key.interestOpsOr(SelectionKey.OP_WRITE);
+                    } catch (RuntimeException e) {
+                        closeSession(session); // 键已经被取消
+                        return -1;
+                    }
+                    selector.wakeup();
+                }
+                return size;
+            }
+        }
+    }
+
+    static byte cellKind(SnakeSimulation simulation, int cell) {
+        // 与渲染器的优先级一致：苹果、道具、蛇头、蛇身；脏格子不会是障碍物
+        if (cell == simulation.getAppleCell()) {
+            return APPLE;
+        }
+        if (cell == simulation.getSpecialItemCell()) {
+            return ITEM;
+        }
+        SnakeBody snake = simulation.getSnake();
+        if (cell == snake.cell(0)) {
+            return HEAD;
+        }
+        return snake.isOccupied(cell % simulation.getCols(), cell / simulation.getCols()) ? BODY : EMPTY;
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Session session = (Session) key.attachment();
+                    if (key.isReadable()) {
+                        read(session);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(session);
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // close() 关掉了选择器
+        } catch (IOException e) {
+            if (running) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // 出错只影响当前这个连接，选择器线程照常运行
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                // 多半是文件描述符用完了（EMFILE）：连接还留在队列里，马上重试只会空转，先停一会儿再接
+                System.err.printf("Snake server accept failed, pausing %d ms: %s%n", ACCEPT_BACKOFF_MILLIS, e);
+                acceptKey.interestOps(0);
+                scheduler.schedule(this::resumeAccept, ACCEPT_BACKOFF_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+            SelectionKey key;
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                key = channel.register(selector, SelectionKey.OP_READ);
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // 已经在出错了，关不掉也没别的办法
+                }
+                continue;
+            }
+            int id = nextSessionId++;
+            Session session = new Session(id, channel, key);
+            key.attach(session);
+            sessions.incrementAndGet();
+            shards[Math.floorMod(id, shards.length)].joining.add(session);
+        }
+    }
+
+    private void resumeAccept() {
+        if (running && acceptKey.isValid()) {
+            acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+            selector.wakeup();
+        }
+    }
+
+    private void read(Session session) {
+        ByteBuffer buffer = readBuffer;
+        buffer.clear();
+        int n;
+        try {
+            n = session.channel.read(buffer);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            closeSession(session);
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            byte command = buffer.get(i);
+            switch (command) {
+                case 'U':
+                case 'D':
+                case 'L':
+                case 'R':
+                case RESTART:
+                    session.input.set(command);
+                    break;
+                default:
+                    break; // 不认识的字节忽略
+            }
+        }
+    }
+
+    private void flush(Session session) {
+        synchronized (session) {
+            if (session.closed.get()) {
+                return; // 分片线程刚关掉它，键已取消，不能再改关注的事件
+            }
+            ByteBuffer backlog = session.backlog;
+            if (backlog == null) {
+                session.key.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+            try {
+                session.channel.write(backlog);
+            } catch (IOException e) {
+                closeSession(session);
+                return;
+            }
+            if (!backlog.hasRemaining()) {
+                session.backlog = null;
+                session.key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+    }
+
+    private void closeSession(Session session) {
+        if (!session.closed.compareAndSet(false, true)) {
+            return;
+        }
+        sessions.decrementAndGet();
+        synchronized (session) {
+            session.key.cancel();
+            try {
+                session.channel.close();
+            } catch (IOException e) {
+                // 连接已经断了，没有别的要做
+            }
+        }
+    }
+
+    // 汇总各分片的统计并清零
+    public String report(double seconds) {
+        long[] buckets = new long[32];
+        long max = 0;
+        long frames = 0;
+        long bytes = 0;
+        long dropped = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (int i = 0; i < buckets.length; i++) {
+                    buckets[i] += shard.latencyBuckets[i];
+                    shard.latencyBuckets[i] = 0;
+                }
+                max = Math.max(max, shard.maxLatencyNanos);
+                frames += shard.frames;
+                bytes += shard.bytes;
+                dropped += shard.dropped;
+                shard.maxLatencyNanos = 0;
+                shard.frames = 0;
+                shard.bytes = 0;
+                shard.dropped = 0;
+            }
+        }
+        return String.format("sessions=%d frames/s=%.0f KB/s=%.0f dropped=%d tick p50<=%dus p99<=%dus max=%dus",
+                sessions.get(), frames / seconds, bytes / 1024.0 / seconds, dropped,
+                bucketBound(buckets, 50), bucketBound(buckets, 99), max / 1000);
+    }
+
+    private static long bucketBound(long[] buckets, double percentile) {
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank && seen > 0) {
+                return 1L << i; // 第 i 个桶是 [2^(i-1), 2^i) 微秒
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+        selector.wakeup();
+        try {
+            selectorThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 选择器线程退出以后再遍历键集合；每个会话的连接都要关掉，客户端才会读到结束
+        try {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Session) {
+                    closeSession((Session) key.attachment());
+                }
+            }
+            selector.close();
+            serverChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 压测客户端：在本进程里开 count 个连接，按帧收数据，随机转向，死了就重开
+    static void bench(int port, int count, int seconds, SnakeServer server) throws IOException, InterruptedException {
+        Selector clientSelector = Selector.open();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        int frameLimit = frameLimit(server.cols, server.rows);
+        for (int i = 0; i < count; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(clientSelector, SelectionKey.OP_READ, ByteBuffer.allocate(2 * frameLimit));
+        }
+        System.out.printf("Connected %d clients%n", count);
+        ByteBuffer command = ByteBuffer.allocate(1);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long nextReport = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long received = 0;
+        while (System.nanoTime() < end) {
+            clientSelector.select(100);
+            Iterator<SelectionKey> keys = clientSelector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                SocketChannel channel = (SocketChannel) key.channel();
+                ByteBuffer buffer = (ByteBuffer) key.attachment();
+                if (channel.read(buffer) < 0) {
+                    key.cancel();
+                    channel.close();
+                    continue;
+                }
+                buffer.flip();
+                byte reply = 0;
+                while (buffer.remaining() >= 4 && buffer.remaining() >= 4 + buffer.getInt(buffer.position())) {
+                    int length = buffer.getInt();
+                    int frameStart = buffer.position();
+                    boolean over = buffer.get(frameStart + 1 + 8 + 4) != 0;
+                    buffer.position(frameStart + length);
+                    received++;
+                    if (over) {
+                        reply = RESTART;
+                    } else if (ThreadLocalRandom.current().nextInt(8) == 0) {
+                        reply = (byte) "UDLR".charAt(ThreadLocalRandom.current().nextInt(4));
+                    }
+                }
+                buffer.compact();
+                if (reply != 0) {
+                    command.clear();
+                    command.put(reply).flip();
+                    channel.write(command);
+                }
+            }
+            if (System.nanoTime() >= nextReport) {
+                nextReport += TimeUnit.SECONDS.toNanos(1);
+                System.out.printf("client frames/s=%d | %s%n", received, server.report(1.0));
+                received = 0;
+            }
+        }
+        clientSelector.close();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // 参数：[端口 [调度线程数 [列数 行数]]] [--bench 连接数 秒数]
+        List<String> positional = new ArrayList<>();
+        int benchSessions = 0;
+        int benchSeconds = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--bench")) {
+                benchSessions = Integer.parseInt(args[++i]);
+                benchSeconds = Integer.parseInt(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        int port = positional.size() > 0 ? Integer.parseInt(positional.get(0)) : DEFAULT_PORT;
+        int threads = positional.size() > 1 ? Integer.parseInt(positional.get(1))
+                : Math.min(4, Runtime.getRuntime().availableProcessors());
+        int cols = positional.size() > 3 ? Integer.parseInt(positional.get(2)) : 20;
+        int rows = positional.size() > 3 ? Integer.parseInt(positional.get(3)) : 20;
+
+        try (SnakeServer server = new SnakeServer(port, threads, cols, rows, System.nanoTime())) {
+            System.out.printf("Snake server on %s:%d, %dx%d, %d tick threads, %d ms tick%n",
+                    InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), cols, rows, threads, TICK_MILLIS);
+            if (benchSessions > 0) {
+                bench(server.getPort(), benchSessions, benchSeconds, server);
+                return;
+            }
+            while (true) {
+                Thread.sleep(5000);
+                System.out.println(server.report(5.0));
+            }
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package games.snake;
+
+import games.core.SplitMix64;
+
+// 贪吃蛇的纯逻辑核心：不依赖 AWT/Swing，step(turn) 推进一个固定时间步；
+// 同一个种子和同样的输入序列总是得到同样的结果，可以在工作线程上远快于实时地跑
+public class SnakeSimulation {
+    public static final char NONE = 0; // 这一步不转向
+
+    public static final int DELAY = 100; // 初始每步的时长（毫秒）
+    private static final int MIN_DELAY = 50;
+    private static final int INITIAL_LENGTH = 6; // 蛇的初始长度
+    // 每走这么多步把空格子索引按编号排一次序，代价 O(格子数)；排过序的局面快照不用存空格子的排列
+    static final int FREE_SORT_INTERVAL = 256;
+    static final int DIRTY_CAPACITY = 64; // 渲染器来不及取走时最多攒这么多脏格子，再多就整屏重画
+
+    private final int cols; // 网格列数
+    private final int rows; // 网格行数
+    private final SnakeBody snake; // 蛇身（环形缓冲区 + 占用位图，障碍物也记在位图里）
+    private final int[] obstacles; // 障碍物所在的格子
+    private int obstacleCount;
+    private int obstacleVersion; // 每次重新生成障碍物加一，渲染器据此决定是否重画静态层
+
+    private long seed;
+    private final SplitMix64 random = new SplitMix64(0); // 一个 long 就是全部随机状态
+
+    private char direction; // 蛇的移动方向
+    private int pendingGrowth; // 还要长出的节数：蛇从一格开始，前几步不放开蛇尾
+    private int applesEaten; // 吃到的苹果数量
+    private int appleCell; // 苹果所在的格子（行 * cols + 列），棋盘满了时为 -1
+    private int specialItemCell; // 特殊道具所在的格子
+    private char specialItemType; // 特殊道具类型
+    private int difficulty; // 游戏难度级别
+    private int delay; // 当前每步的时长，加速道具会减小它
+    private boolean over; // 游戏是否结束
+    private long tick; // 已经走了多少步
+    private int previousTail; // 上一步放开的蛇尾格子，用于插值绘制；没放开时为 -1
+    private boolean freeSorted; // 空格子索引排过序之后还没动过
+
+    private final int[] dirty = new int[DIRTY_CAPACITY]; // 自上次 clearDirty 以来外观变了的格子
+    private int dirtyCount;
+    private boolean fullRedraw; // 障碍物重新生成了或者脏格子太多，需要整屏重画
+
+    public SnakeSimulation(int cols, int rows, long seed) {
+        this.cols = cols;
+        this.rows = rows;
+        this.snake = new SnakeBody(cols, rows);
+        this.obstacles = new int[cols * rows];
+        reset(seed);
+    }
+
+    // 用新的种子重新开始
+    public void reset(long seed) {
+        this.seed = seed;
+        random.setState(seed);
+        snake.reset(0, 0);
+        pendingGrowth = INITIAL_LENGTH - 1;
+        applesEaten = 0;
+        direction = 'R';
+        difficulty = 1;
+        delay = DELAY;
+        over = false;
+        tick = 0;
+        previousTail = -1;
+        specialItemType = 0; // 和原版一样，第一个道具在抽到类型之前是没有效果的空道具
+        newApple();
+        newSpecialItem();
+        createObstacles();
+        snake.sortFree();
+        freeSorted = true;
+        dirtyCount = 0;
+        fullRedraw = true;
+    }
+
+    // 完整的游戏状态；障碍物由种子决定，不用存。空格子索引的排列会影响之后苹果和道具的位置，
+    // 刚排过序时可以从蛇身、障碍物、苹果和道具推出来，否则要原样存下
+    public static class Snapshot {
+        private final long tick;
+        private final long rngState;
+        private final char direction;
+        private final int pendingGrowth;
+        private final int applesEaten;
+        private final int appleCell;
+        private final int specialItemCell;
+        private final char specialItemType;
+        private final int difficulty;
+        private final int delay;
+        private final boolean over;
+        private final int previousTail;
+        private final int[] body;
+        private final int[] freeOrder; // 刚排过序时为 null
+        private final int freeCount;
+
+        Snapshot(SnakeSimulation simulation) {
+            tick = simulation.tick;
+            rngState = simulation.random.getState();
+            direction = simulation.direction;
+            pendingGrowth = simulation.pendingGrowth;
+            applesEaten = simulation.applesEaten;
+            appleCell = simulation.appleCell;
+            specialItemCell = simulation.specialItemCell;
+            specialItemType = simulation.specialItemType;
+            difficulty = simulation.difficulty;
+            delay = simulation.delay;
+            over = simulation.over;
+            previousTail = simulation.previousTail;
+            SnakeBody snake = simulation.snake;
+            body = new int[snake.length()];
+            for (int i = 0; i < body.length; i++) {
+                body[i] = snake.cell(i);
+            }
+            freeOrder = simulation.freeSorted ? null : snake.freeOrder();
+            freeCount = snake.freeCount();
+        }
+
+        public long getTick() {
+            return tick;
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    // 恢复到快照时的状态；快照必须来自同一个种子的对局
+    public void restore(Snapshot snapshot) {
+        tick = snapshot.tick;
+        random.setState(snapshot.rngState);
+        direction = snapshot.direction;
+        pendingGrowth = snapshot.pendingGrowth;
+        applesEaten = snapshot.applesEaten;
+        appleCell = snapshot.appleCell;
+        specialItemCell = snapshot.specialItemCell;
+        specialItemType = snapshot.specialItemType;
+        difficulty = snapshot.difficulty;
+        delay = snapshot.delay;
+        over = snapshot.over;
+        previousTail = snapshot.previousTail;
+        snake.restore(snapshot.body, snapshot.body.length, obstacles, obstacleCount, snapshot.freeOrder, snapshot.freeCount,
+                appleCell, specialItemCell);
+        freeSorted = snapshot.freeOrder == null;
+        dirtyCount = 0;
+        fullRedraw = true;
+    }
+
+    // 推进一步：先按 turn 转向（不能直接掉头），再移动、吃苹果和道具；返回游戏是否还在进行
+    public boolean step(char turn) {
+        if (over) {
+            return false;
+        }
+        if (turn != NONE && turn != opposite(direction)) {
+            direction = turn;
+        }
+        int col = snake.headCol();
+        int row = snake.headRow();
+        switch (direction) {
+            case 'U':
+                row--;
+                break;
+            case 'D':
+                row++;
+                break;
+            case 'L':
+                col--;
+                break;
+            case 'R':
+                col++;
+                break;
+        }
+        boolean grow = pendingGrowth > 0;
+        int tail = snake.cell(snake.length() - 1);
+        tick++;
+        freeSorted = false;
+        // 撞到边界、自己或障碍物（占用位图一次判断）
+        if (!snake.advance(col, row, grow)) {
+            over = true;
+            return false;
+        }
+        previousTail = grow ? -1 : tail;
+        if (grow) {
+            pendingGrowth--;
+        } else {
+            markDirty(tail);
+        }
+        // 新蛇头和变成身体的旧蛇头
+        markDirty(snake.cell(0));
+        if (snake.length() > 1) {
+            markDirty(snake.cell(1));
+        }
+        checkApple();
+        checkSpecialItem();
+        if (tick % FREE_SORT_INTERVAL == 0) {
+            snake.sortFree();
+            freeSorted = true;
+        }
+        return true;
+    }
+
+    private void checkApple() {
+        if (snake.cell(0) == appleCell) {
+            pendingGrowth++;
+            applesEaten++;
+            newApple();
+        }
+    }
+
+    private void checkSpecialItem() {
+        if (snake.cell(0) != specialItemCell) {
+            return;
+        }
+        // 根据特殊道具类型执行相应的操作
+        switch (specialItemType) {
+            case 'S':
+                // 缩小道具：减少蛇的身体长度
+                if (pendingGrowth > 0) {
+                    pendingGrowth--;
+                } else if (snake.length() > 1) {
+                    markDirty(snake.cell(snake.length() - 1));
+                    snake.shrink();
+                }
+                break;
+            case 'F':
+                // 加速道具：缩短每步的时长，加快蛇的移动速度
+                if (delay > MIN_DELAY) {
+                    delay -= 10;
+                }
+                break;
+            // 其他特殊道具类型的处理...
+        }
+        newSpecialItem();
+    }
+
+    private void newApple() {
+        // 从空格子里均匀随机取一个，不会落在蛇身、障碍物或道具上
+        appleCell = snake.spawn(random.nextLong());
+        markDirty(appleCell);
+    }
+
+    private void newSpecialItem() {
+        specialItemCell = snake.spawn(random.nextLong());
+        markDirty(specialItemCell);
+        // 随机生成特殊道具类型，和原版的 nextInt(3) 一样：第三种情况沿用上一个道具的类型
+        switch (random.nextInt(3)) {
+            case 0:
+                specialItemType = 'S'; // 缩小道具
+                break;
+            case 1:
+                specialItemType = 'F'; // 加速道具
+                break;
+            // 其他特殊道具类型...
+        }
+    }
+
+    private void createObstacles() {
+        // 空格子索引里取出来的格子不会和蛇、苹果、特殊道具重叠
+        obstacleCount = 0;
+        obstacleVersion++;
+        int numObstacles = difficulty * 5; // 随着难度级别增加障碍物数量
+        for (int i = 0; i < numObstacles; i++) {
+            int cell = snake.spawn(random.nextLong());
+            if (cell < 0) {
+                break;
+            }
+            snake.block(cell);
+            obstacles[obstacleCount++] = cell;
+        }
+    }
+
+    private void markDirty(int cell) {
+        if (cell < 0) {
+            return;
+        }
+        if (dirtyCount == dirty.length) {
+            fullRedraw = true;
+            return;
+        }
+        dirty[dirtyCount++] = cell;
+    }
+
+    // turn 是否会在下一步真正改变方向（不是 NONE、不是当前方向、也不是掉头）
+    public boolean changesDirection(char turn) {
+        return turn != NONE && turn != direction && turn != opposite(direction);
+    }
+
+    public static char opposite(char direction) {
+        switch (direction) {
+            case 'U':
+                return 'D';
+            case 'D':
+                return 'U';
+            case 'L':
+                return 'R';
+            case 'R':
+                return 'L';
+            default:
+                return NONE;
+        }
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SnakeBody getSnake() {
+        return snake;
+    }
+
+    public int getObstacleCount() {
+        return obstacleCount;
+    }
+
+    public int obstacle(int i) {
+        return obstacles[i];
+    }
+
+    public int getObstacleVersion() {
+        return obstacleVersion;
+    }
+
+    public char getDirection() {
+        return direction;
+    }
+
+    public int getScore() {
+        return applesEaten;
+    }
+
+    public int getAppleCell() {
+        return appleCell;
+    }
+
+    public int getSpecialItemCell() {
+        return specialItemCell;
+    }
+
+    public char getSpecialItemType() {
+        return specialItemType;
+    }
+
+    public int getPendingGrowth() {
+        return pendingGrowth;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public int getDelay() {
+        return delay;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getPreviousTail() {
+        return previousTail;
+    }
+
+    public int dirtyCount() {
+        return dirtyCount;
+    }
+
+    public int dirtyCell(int i) {
+        return dirty[i];
+    }
+
+    public boolean needsFullRedraw() {
+        return fullRedraw;
+    }
+
+    // 渲染器画完之后清空脏格子
+    public void clearDirty() {
+        dirtyCount = 0;
+        fullRedraw = false;
+    }
+}
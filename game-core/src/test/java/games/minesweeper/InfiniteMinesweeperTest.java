@@ -0,0 +1,146 @@
+package games.minesweeper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 世界目录的打开规则：存档里的种子和密度优先，密度对不上就报错；踩雷之后能用 reset 重新开始；
+// 区块超过上限被淘汰时改动写盘，再访问时读回来
+class InfiniteMinesweeperTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenKeepsSavedSeedAndDensity() {
+        InfiniteMinesweeper world = InfiniteMinesweeper.open(directory, 42L, 0.1);
+        MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        int[] safe = firstSafe(world);
+        int opened = world.revealCascade(safe[0], safe[1], delta);
+        world.toggleFlag(safe[0] + 1000, safe[1]);
+        world.flush();
+
+        InfiniteMinesweeper reopened = InfiniteMinesweeper.open(directory, 7L);
+        assertEquals(42L, reopened.getSeed());
+        assertEquals(0.1, reopened.getDensity());
+        assertEquals(opened, reopened.getRevealedCount());
+        assertEquals(1, reopened.getFlagCount());
+        assertTrue(reopened.isRevealed(safe[0], safe[1]));
+        assertTrue(reopened.isFlagged(safe[0] + 1000, safe[1]));
+        assertEquals(42L, InfiniteMinesweeper.open(directory, 7L, 0.1).getSeed());
+    }
+
+    @Test
+    void newWorldWritesHeaderBeforeFlush() {
+        InfiniteMinesweeper.open(directory, 42L, 0.1);
+        assertTrue(Files.exists(directory.resolve("world.bin")));
+        InfiniteMinesweeper reopened = InfiniteMinesweeper.open(directory, 7L);
+        assertEquals(42L, reopened.getSeed());
+        assertEquals(0.1, reopened.getDensity());
+    }
+
+    @Test
+    void evictedChunksKeepRevealedAndFlaggedCells() {
+        // 上限 4 个区块，在 12 个互不相邻的区块里各揭一个数字格、插一面旗，前面的区块早被淘汰过
+        int maxChunks = 4;
+        InfiniteMinesweeper world = new InfiniteMinesweeper(42L, 0.2, directory, maxChunks);
+        MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        int chunkCount = 12;
+        int[][] revealed = new int[chunkCount][];
+        int[][] flagged = new int[chunkCount][];
+        for (int k = 0; k < chunkCount; k++) {
+            int baseCol = 3 * k * InfiniteMinesweeper.CHUNK_SIZE;
+            revealed[k] = numberedCell(world, 10, baseCol + 10);
+            assertEquals(1, world.revealCascade(revealed[k][0], revealed[k][1], delta));
+            flagged[k] = new int[]{40, baseCol + 40};
+            assertTrue(world.toggleFlag(flagged[k][0], flagged[k][1]));
+            assertTrue(world.getLoadedChunks() <= maxChunks);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.filter(file -> file.getFileName().toString().startsWith("chunk_")).count()
+                    >= chunkCount - maxChunks, "evicted dirty chunks were not written back");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int k = 0; k < chunkCount; k++) {
+            assertTrue(world.isRevealed(revealed[k][0], revealed[k][1]), "revealed bit lost in chunk " + k);
+            assertFalse(world.isRevealed(flagged[k][0], flagged[k][1]));
+            assertTrue(world.isFlagged(flagged[k][0], flagged[k][1]), "flag lost in chunk " + k);
+            assertFalse(world.isFlagged(revealed[k][0], revealed[k][1]));
+            assertTrue(world.getLoadedChunks() <= maxChunks);
+        }
+        assertEquals(chunkCount, world.getRevealedCount());
+        assertEquals(chunkCount, world.getFlagCount());
+    }
+
+    @Test
+    void densityMismatchIsRejected() {
+        InfiniteMinesweeper.open(directory, 42L, 0.1).flush();
+        assertThrows(IllegalArgumentException.class, () -> InfiniteMinesweeper.open(directory, 42L, 0.2));
+    }
+
+    @Test
+    void newWorldUsesDefaultDensity() {
+        assertEquals(InfiniteMinesweeper.DEFAULT_DENSITY, InfiniteMinesweeper.open(directory, 42L).getDensity());
+    }
+
+    @Test
+    void resetAfterExplosion() throws IOException {
+        InfiniteMinesweeper world = InfiniteMinesweeper.open(directory, 42L, 0.2);
+        MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        int[] mine = firstMine(world);
+        world.revealCascade(mine[0], mine[1], delta);
+        assertTrue(world.isExploded());
+        world.flush();
+
+        InfiniteMinesweeper reopened = InfiniteMinesweeper.open(directory, 7L);
+        assertTrue(reopened.isExploded());
+        reopened.reset(7L);
+        assertFalse(reopened.isExploded());
+        assertEquals(0, reopened.getRevealedCount());
+        assertEquals(7L, reopened.getSeed());
+        assertFalse(reopened.isRevealed(mine[0], mine[1]));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.filter(file -> file.getFileName().toString().startsWith("chunk_")).count());
+        }
+
+        InfiniteMinesweeper again = InfiniteMinesweeper.open(directory, 99L);
+        assertFalse(again.isExploded());
+        assertEquals(7L, again.getSeed());
+        assertEquals(0.2, again.getDensity());
+    }
+
+    private static int[] firstSafe(InfiniteMinesweeper world) {
+        for (int col = 0; ; col++) {
+            if (!world.isMine(0, col) && world.adjacentMines(0, col) == 0) {
+                return new int[]{0, col};
+            }
+        }
+    }
+
+    // 从 (row, col) 往右找第一个不是雷、旁边有雷的格子，揭开它不会连锁
+    private static int[] numberedCell(InfiniteMinesweeper world, int row, int col) {
+        for (int c = col; ; c++) {
+            if (!world.isMine(row, c) && world.adjacentMines(row, c) != 0) {
+                return new int[]{row, c};
+            }
+        }
+    }
+
+    private static int[] firstMine(InfiniteMinesweeper world) {
+        for (int col = 0; ; col++) {
+            if (world.isMine(0, col)) {
+                return new int[]{0, col};
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package games.minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.LongBuffer;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 布雷：雷数、安全区和均匀性；揭示、标记和连锁揭示对照朴素实现：二维布尔数组加广度优先扩散
+class MinesweeperEngineTest {
+    private static final int[][] SIZES = {{1, 1}, {1, 9}, {9, 9}, {16, 30}, {37, 53}, {64, 64}};
+
+    @Test
+    void adjacencyMatchesNaiveCount() {
+        for (int[] size : SIZES) {
+            for (long seed = 0; seed < 20; seed++) {
+                int rows = size[0];
+                int cols = size[1];
+                MinesweeperEngine engine = new MinesweeperEngine(rows, cols, rows * cols / 5);
+                engine.placeMines(seed, rows / 2, cols / 2);
+                int mines = 0;
+                for (int row = 0; row < rows; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        if (engine.isMine(row, col)) {
+                            mines++;
+                        }
+                        assertEquals(naiveAdjacent(engine, row, col), engine.adjacentMines(row, col));
+                    }
+                }
+                assertEquals(engine.getMineCount(), mines);
+                assertFalse(engine.isMine(rows / 2, cols / 2), "first click must be safe");
+            }
+        }
+    }
+
+    @Test
+    void placeMinesKeepsCountAndSafeZoneOnEveryShape() {
+        // 格子数不是 64 的倍数、稀疏和密集（取反分支）、角上边上中间点第一下，都要放够雷、安全区里没有雷
+        int[][] sizes = {{7, 11}, {9, 9}, {16, 30}, {37, 53}, {1, 70}};
+        double[] densities = {0.1, 0.5, 0.6, 0.9};
+        for (int[] size : sizes) {
+            int rows = size[0];
+            int cols = size[1];
+            int[][] clicks = {{0, 0}, {0, cols - 1}, {rows - 1, 0}, {rows - 1, cols - 1},
+                    {0, cols / 2}, {rows / 2, 0}, {rows / 2, cols / 2}};
+            for (double density : densities) {
+                for (int[] click : clicks) {
+                    for (long seed = 0; seed < 5; seed++) {
+                        MinesweeperEngine engine = new MinesweeperEngine(rows, cols, (int) (rows * cols * density));
+                        engine.placeMines(seed, click[0], click[1]);
+                        assertMinesPlaced(engine);
+                        // 九宫格（贴边时裁掉出界的部分）放得下就整个不放雷，放不下就只保证点的那一格
+                        int zone = 0;
+                        for (int r = click[0] - 1; r <= click[0] + 1; r++) {
+                            for (int c = click[1] - 1; c <= click[1] + 1; c++) {
+                                if (engine.inBounds(r, c)) {
+                                    zone++;
+                                }
+                            }
+                        }
+                        boolean fits = engine.getMineCount() <= rows * cols - zone;
+                        for (int r = click[0] - 1; r <= click[0] + 1; r++) {
+                            for (int c = click[1] - 1; c <= click[1] + 1; c++) {
+                                if (engine.inBounds(r, c) && (fits || (r == click[0] && c == click[1]))) {
+                                    assertFalse(engine.isMine(r, c), "mine in the safe zone at " + r + "," + c
+                                            + " for click " + click[0] + "," + click[1] + " on " + rows + "x" + cols);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void safeZoneShrinksWhenMinesDoNotFit() {
+        // 3x3 放 8 颗：九宫格放不下，只留点的那一格
+        MinesweeperEngine center = new MinesweeperEngine(3, 3, 8);
+        center.placeMines(1, 1, 1);
+        assertMinesPlaced(center);
+        assertFalse(center.isMine(1, 1));
+        // 4x4 角上点、放 13 颗：角上的 2x2 安全区放不下，也只留点的那一格
+        MinesweeperEngine corner = new MinesweeperEngine(4, 4, 13);
+        corner.placeMines(2, 0, 0);
+        assertMinesPlaced(corner);
+        assertFalse(corner.isMine(0, 0));
+        // 全是雷：安全区取消
+        MinesweeperEngine full = new MinesweeperEngine(3, 3, 9);
+        full.placeMines(3, 1, 1);
+        assertMinesPlaced(full);
+    }
+
+    @Test
+    void placeMinesIsUniformOutsideTheSafeZone() {
+        // 4x5 角上点：安全区外 16 个格子，每格被抽中的次数应该都接近 次数 * 雷数 / 16
+        // 3 颗走稀疏分支，14 颗走取反分支
+        int trials = 40_000;
+        for (int count : new int[]{3, 14}) {
+            int[] hits = new int[20];
+            for (long seed = 0; seed < trials; seed++) {
+                MinesweeperEngine engine = new MinesweeperEngine(4, 5, count);
+                engine.placeMines(seed, 0, 0);
+                for (int cell = 0; cell < 20; cell++) {
+                    if (engine.isMine(cell / 5, cell % 5)) {
+                        hits[cell]++;
+                    }
+                }
+            }
+            double expected = (double) trials * count / 16;
+            for (int cell = 0; cell < 20; cell++) {
+                boolean safe = cell / 5 <= 1 && cell % 5 <= 1;
+                if (safe) {
+                    assertEquals(0, hits[cell]);
+                } else {
+                    assertEquals(expected, hits[cell], expected * 0.05, "cell " + cell + ", " + count + " mines");
+                }
+            }
+        }
+    }
+
+    @Test
+    void revealFlagAndCascadeMatchReference() {
+        for (int[] size : SIZES) {
+            for (long seed = 0; seed < 20; seed++) {
+                playRandomly(size[0], size[1], seed);
+            }
+        }
+    }
+
+    // 随机点开和插旗，每一步都和参照实现比较揭示状态、剩余格子数和返回的 delta
+    private static void playRandomly(int rows, int cols, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        MinesweeperEngine engine = new MinesweeperEngine(rows, cols, rows * cols / 8);
+        engine.placeMines(seed, rows / 2, cols / 2);
+        MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        boolean[][] revealed = new boolean[rows][cols];
+        boolean[][] flagged = new boolean[rows][cols];
+        int remaining = rows * cols - engine.getMineCount();
+
+        while (!engine.isGameOver()) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(cols);
+            if (random.nextInt(4) == 0) {
+                boolean expected = !revealed[row][col] && !flagged[row][col];
+                assertEquals(expected, engine.toggleFlag(row, col));
+                if (!revealed[row][col]) {
+                    flagged[row][col] = expected;
+                }
+                continue;
+            }
+            boolean[][] before = copy(revealed);
+            int opened = naiveCascade(engine, revealed, flagged, row, col);
+            assertEquals(opened, engine.revealCascade(row, col, delta));
+            assertEquals(opened, delta.size());
+            for (int i = 0; i < delta.size(); i++) {
+                assertFalse(before[delta.row(i)][delta.col(i)], "delta lists an already revealed cell");
+                assertTrue(revealed[delta.row(i)][delta.col(i)], "delta lists a cell the reference left closed");
+            }
+            boolean exploded = false;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    assertEquals(revealed[r][c], engine.isRevealed(r, c));
+                    assertEquals(flagged[r][c], engine.isFlagged(r, c));
+                    if (revealed[r][c] && !before[r][c]) {
+                        if (engine.isMine(r, c)) {
+                            exploded = true;
+                        } else {
+                            remaining--;
+                        }
+                    }
+                }
+            }
+            assertEquals(remaining, engine.getRemaining());
+            if (exploded) {
+                assertTrue(engine.isExploded());
+            }
+            assertEquals(remaining == 0, engine.isWon());
+        }
+    }
+
+    // 地雷位图里正好有 mineCount 位，最后一个 long 里超出棋盘的位都是 0
+    private static void assertMinesPlaced(MinesweeperEngine engine) {
+        int cells = engine.getCellCount();
+        long[] bits = new long[(cells + 63) >>> 6];
+        engine.writeMines(LongBuffer.wrap(bits));
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        assertEquals(engine.getMineCount(), count);
+        if ((cells & 63) != 0) {
+            assertEquals(0L, bits[bits.length - 1] >>> (cells & 63), "mine bits past the last cell");
+        }
+    }
+
+    private static int naiveCascade(MinesweeperEngine engine, boolean[][] revealed, boolean[][] flagged, int row, int col) {
+        if (revealed[row][col] || flagged[row][col]) {
+            return 0;
+        }
+        int opened = 0;
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        revealed[row][col] = true;
+        opened++;
+        if (engine.isMine(row, col) || naiveAdjacent(engine, row, col) != 0) {
+            return opened;
+        }
+        queue.add(new int[]{row, col});
+        while (!queue.isEmpty()) {
+            int[] cell = queue.poll();
+            for (int r = cell[0] - 1; r <= cell[0] + 1; r++) {
+                for (int c = cell[1] - 1; c <= cell[1] + 1; c++) {
+                    if (!engine.inBounds(r, c) || revealed[r][c] || flagged[r][c]) {
+                        continue;
+                    }
+                    revealed[r][c] = true;
+                    opened++;
+                    if (naiveAdjacent(engine, r, c) == 0) {
+                        queue.add(new int[]{r, c});
+                    }
+                }
+            }
+        }
+        return opened;
+    }
+
+    private static int naiveAdjacent(MinesweeperEngine engine, int row, int col) {
+        int count = 0;
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if ((r != row || c != col) && engine.inBounds(r, c) && engine.isMine(r, c)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean[][] copy(boolean[][] grid) {
+        boolean[][] copy = new boolean[grid.length][];
+        for (int i = 0; i < grid.length; i++) {
+            copy[i] = grid[i].clone();
+        }
+        return copy;
+    }
+}
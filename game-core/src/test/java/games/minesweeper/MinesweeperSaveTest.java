@@ -0,0 +1,138 @@
+package games.minesweeper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 存档：自动存档之后不关文件直接读档（相当于进程被杀），局面要一模一样，读档后接着玩也要一样；
+// 读档只读头部，位图按页用到才拷；写到一半的存档读档时要被拒绝
+class MinesweeperSaveTest {
+    // 第二种尺寸一行比一页还长，相邻地雷数要跨好几页去找地雷
+    private static final int[][] SIZES = {{300, 400}, {3, 40_000}};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumeAfterAutosaveRestoresTheBoard() {
+        for (int[] size : SIZES) {
+            Path file = directory.resolve("board_" + size[0] + "x" + size[1] + ".mines");
+            MinesweeperEngine engine = new MinesweeperEngine(size[0], size[1], size[0] * size[1] / 6);
+            engine.placeMines(11L, size[0] / 2, size[1] / 2);
+            MinesweeperSave save = MinesweeperSave.create(file, engine);
+            SplittableRandom random = new SplittableRandom(5);
+            play(engine, save, random, 200);
+
+            MinesweeperSave resumed = MinesweeperSave.resume(file);
+            MinesweeperEngine copy = resumed.getEngine();
+            assertEquals(copy.pageCount(), copy.pendingPageCount());
+            copy.isRevealed(0, 0);
+            assertEquals(copy.pageCount() - 1, copy.pendingPageCount(), "touching one cell should load one page");
+            assertSameBoard(engine, copy);
+
+            // 读档后接着玩，两边同样的操作得到同样的结果
+            play(engine, save, new SplittableRandom(9), 200);
+            play(copy, resumed, new SplittableRandom(9), 200);
+            assertSameBoard(engine, copy);
+            save.close();
+            resumed.close();
+        }
+    }
+
+    @Test
+    void firstMoveAfterResumeOnlyLoadsNearbyPages() {
+        Path file = directory.resolve("huge.mines");
+        MinesweeperEngine engine = new MinesweeperEngine(2000, 2000, 800_000);
+        engine.placeMines(3L, 1000, 1000);
+        MinesweeperSave.create(file, engine).close();
+
+        MinesweeperEngine copy = MinesweeperSave.resume(file).getEngine();
+        copy.revealCascade(1000, 1000, new MinesweeperEngine.Delta());
+        assertEquals(engine.adjacentMines(1000, 1000), copy.adjacentMines(1000, 1000));
+        assertTrue(copy.pendingPageCount() >= copy.pageCount() - 8, "cascade near the center should stay within a few pages");
+    }
+
+    @Test
+    void tornSaveIsRejected() throws IOException {
+        Path file = directory.resolve("torn.mines");
+        MinesweeperEngine engine = new MinesweeperEngine(100, 100, 1500);
+        engine.placeMines(1L, 50, 50);
+        MinesweeperSave save = MinesweeperSave.create(file, engine);
+        play(engine, save, new SplittableRandom(2), 20);
+
+        // 模拟写到一半：开始代号已经加一，提交代号还是旧的
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer generation = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(generation, MinesweeperSave.BEGIN_OFFSET);
+            generation.flip();
+            long next = generation.getLong() + 1;
+            generation.clear();
+            generation.putLong(next).flip();
+            channel.write(generation, MinesweeperSave.BEGIN_OFFSET);
+        }
+        assertThrows(UncheckedIOException.class, () -> MinesweeperSave.resume(file));
+    }
+
+    @Test
+    void unfinishedOrTruncatedFilesAreRejected() throws IOException {
+        // create 还没来得及写头部：文件大小对，但全是 0
+        Path blank = directory.resolve("blank.mines");
+        MinesweeperSave.create(blank, new MinesweeperEngine(50, 50, 100)).close();
+        long size = Files.size(blank);
+        Files.write(blank, new byte[(int) size]);
+        assertThrows(UncheckedIOException.class, () -> MinesweeperSave.resume(blank));
+
+        Path truncated = directory.resolve("truncated.mines");
+        MinesweeperSave.create(truncated, new MinesweeperEngine(50, 50, 100)).close();
+        try (FileChannel channel = FileChannel.open(truncated, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 8);
+        }
+        assertThrows(UncheckedIOException.class, () -> MinesweeperSave.resume(truncated));
+
+        assertNull(MinesweeperSave.resume(directory.resolve("missing.mines")));
+    }
+
+    // 随机点开和插旗，每一步之后自动存档
+    private static void play(MinesweeperEngine engine, MinesweeperSave save, SplittableRandom random, int moves) {
+        MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        for (int move = 0; move < moves && !engine.isGameOver(); move++) {
+            int row = random.nextInt(engine.getRows());
+            int col = random.nextInt(engine.getCols());
+            if (random.nextInt(4) == 0 || engine.isMine(row, col)) {
+                engine.toggleFlag(row, col);
+            } else {
+                engine.revealCascade(row, col, delta);
+            }
+            save.flushDirty();
+        }
+    }
+
+    private static void assertSameBoard(MinesweeperEngine expected, MinesweeperEngine actual) {
+        assertEquals(expected.getRemaining(), actual.getRemaining());
+        assertEquals(expected.getFlagCount(), actual.getFlagCount());
+        assertEquals(expected.isExploded(), actual.isExploded());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        for (int row = 0; row < expected.getRows(); row++) {
+            for (int col = 0; col < expected.getCols(); col++) {
+                assertEquals(expected.isMine(row, col), actual.isMine(row, col));
+                assertEquals(expected.isRevealed(row, col), actual.isRevealed(row, col));
+                assertEquals(expected.isFlagged(row, col), actual.isFlagged(row, col));
+                assertEquals(expected.adjacentMines(row, col), actual.adjacentMines(row, col), row + "," + col);
+            }
+        }
+    }
+}
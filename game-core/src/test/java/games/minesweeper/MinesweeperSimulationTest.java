@@ -0,0 +1,33 @@
+package games.minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 批量模拟按局号派生种子、求解器按工作量限额，胜局数不能随线程数变
+class MinesweeperSimulationTest {
+    private static final long GAMES = 300;
+
+    @Test
+    void winsDoNotDependOnThreadCount() throws InterruptedException {
+        // 高级棋盘上求解器经常要枚举大连通块，最容易碰到预算上限
+        long sequential = new MinesweeperSimulation(16, 30, 99, 42L, 1).run(GAMES).getWins();
+        for (int threads : new int[]{2, 4, 8}) {
+            assertEquals(sequential, new MinesweeperSimulation(16, 30, 99, 42L, threads).run(GAMES).getWins(),
+                    threads + " threads");
+        }
+    }
+
+    @Test
+    void sameSeedSameResult() {
+        MinesweeperSolver solver = new MinesweeperSolver(null);
+        MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        for (long seed = 0; seed < 50; seed++) {
+            MinesweeperEngine first = new MinesweeperEngine(16, 30, 99);
+            MinesweeperEngine second = new MinesweeperEngine(16, 30, 99);
+            assertEquals(MinesweeperSimulation.play(first, solver, delta, seed),
+                    MinesweeperSimulation.play(second, solver, delta, seed));
+            assertEquals(first.getRemaining(), second.getRemaining());
+        }
+    }
+}
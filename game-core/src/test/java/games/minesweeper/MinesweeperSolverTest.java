@@ -0,0 +1,203 @@
+package games.minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.LongBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 求解器：已知定式的结论、小棋盘上和暴力枚举数出来的概率一致；
+// 跨调用增量维护边界时，复用的求解器每一步都要和新建的求解器给出一样的结果，包括同一个引擎连着开好几局的情况
+class MinesweeperSolverTest {
+    private static final long NODES = 1L << 20;
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    void oneTwoOneWallHasMinesUnderTheOnes() {
+        // 下面一行全揭开，数字是 1 1 2 1 1：只能是第 2、4 格有雷
+        MinesweeperEngine engine = board(
+                ".*.*.",
+                "ooooo");
+        MinesweeperSolver.Result result = new MinesweeperSolver(null).solveNodes(engine, NODES);
+        assertEquals(5, result.size());
+        float[] expected = {0f, 1f, 0f, 1f, 0f};
+        for (int col = 0; col < 5; col++) {
+            assertEquals(expected[col], probabilityAt(result, engine.index(0, col)), 0f, "col " + col);
+        }
+        assertTrue(result.isHintSafe());
+        assertEquals(0, result.getHintRow());
+    }
+
+    @Test
+    void oneOneFromTheEdgeFreesTheThirdCell() {
+        // 左边两个 1 共用角上两格里的那颗雷，所以第二个 1 右边的两格一定安全
+        MinesweeperEngine engine = board(
+                "*..",
+                "oo.");
+        MinesweeperSolver.Result result = new MinesweeperSolver(null).solveNodes(engine, NODES);
+        assertEquals(0.5f, probabilityAt(result, engine.index(0, 0)), EPSILON);
+        assertEquals(0.5f, probabilityAt(result, engine.index(0, 1)), EPSILON);
+        assertEquals(0f, probabilityAt(result, engine.index(0, 2)), 0f);
+        assertEquals(0f, probabilityAt(result, engine.index(1, 2)), 0f);
+        assertTrue(result.isHintSafe());
+        assertEquals(2, result.getHintCol());
+    }
+
+    @Test
+    void probabilitiesMatchBruteForceOnTinyBoards() {
+        // 5x5、5 颗雷：枚举所有和已揭示数字一致的布雷方式，数出每格是雷的比例
+        MinesweeperSolver solver = new MinesweeperSolver(null);
+        MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        MinesweeperEngine engine = new MinesweeperEngine(5, 5, 5);
+        for (long seed = 0; seed < 30; seed++) {
+            engine.placeMines(seed, 0, 0);
+            engine.revealCascade(0, 0, delta);
+            while (!engine.isGameOver()) {
+                MinesweeperSolver.Result result = solver.solveNodes(engine, NODES);
+                double[] expected = bruteForce(engine);
+                for (int cell = 0; cell < engine.getCellCount(); cell++) {
+                    int row = cell / engine.getCols();
+                    int col = cell % engine.getCols();
+                    if (!engine.isRevealed(row, col)) {
+                        assertEquals(expected[cell], probabilityAt(result, cell), EPSILON,
+                                "cell " + cell + ", seed " + seed);
+                    }
+                }
+                if (!result.hasHint()) {
+                    break;
+                }
+                engine.revealCascade(result.getHintRow(), result.getHintCol(), delta);
+            }
+        }
+    }
+
+    @Test
+    void incrementalFrontierMatchesFreshSolve() {
+        MinesweeperSolver reused = new MinesweeperSolver(null);
+        MinesweeperEngine.Delta delta = new MinesweeperEngine.Delta();
+        MinesweeperEngine engine = new MinesweeperEngine(16, 30, 99);
+        for (long seed = 0; seed < 40; seed++) {
+            engine.placeMines(seed, 8, 15);
+            engine.revealCascade(8, 15, delta);
+            while (!engine.isGameOver()) {
+                MinesweeperSolver.Result result = reused.solveNodes(engine, NODES);
+                assertSame(new MinesweeperSolver(null).solveNodes(engine, NODES), result, seed);
+                if (!result.hasHint()) {
+                    break;
+                }
+                // 一次只揭一格，让边界一点一点变
+                engine.revealCascade(result.getHintRow(), result.getHintCol(), delta);
+            }
+        }
+    }
+
+    private static void assertSame(MinesweeperSolver.Result expected, MinesweeperSolver.Result actual, long seed) {
+        assertEquals(expected.size(), actual.size(), "frontier size, seed " + seed);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.cell(i), actual.cell(i), "frontier cell, seed " + seed);
+            assertEquals(expected.probability(i), actual.probability(i), "probability, seed " + seed);
+        }
+        assertEquals(expected.getInteriorProbability(), actual.getInteriorProbability());
+        assertEquals(expected.hasHint(), actual.hasHint());
+        if (expected.hasHint()) {
+            assertEquals(expected.getHintRow(), actual.getHintRow());
+            assertEquals(expected.getHintCol(), actual.getHintCol());
+        }
+    }
+
+    // 用字符画建一个局面：'*' 是没揭开的雷，'.' 是没揭开的空格，'o' 是揭开的空格
+    private static MinesweeperEngine board(String... rows) {
+        int cols = rows[0].length();
+        int cells = rows.length * cols;
+        int mineCount = 0;
+        int revealedCount = 0;
+        int words = (cells + 63) >>> 6;
+        long[] bits = new long[3 * words]; // 存档布局：地雷、已揭示、已标记
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cell = row * cols + col;
+                char c = rows[row].charAt(col);
+                if (c == '*') {
+                    bits[cell >>> 6] |= 1L << cell;
+                    mineCount++;
+                } else if (c == 'o') {
+                    bits[words + (cell >>> 6)] |= 1L << cell;
+                    revealedCount++;
+                }
+            }
+        }
+        MinesweeperEngine engine = new MinesweeperEngine(rows.length, cols, mineCount);
+        engine.restore(LongBuffer.wrap(bits), 0L, true, cells - mineCount - revealedCount, 0, false);
+        return engine;
+    }
+
+    private static float probabilityAt(MinesweeperSolver.Result result, int cell) {
+        int i = result.indexAtOrAfter(cell);
+        return i < result.size() && result.cell(i) == cell ? result.probability(i) : result.getInteriorProbability();
+    }
+
+    // 枚举未揭示格子里放 mineCount 颗雷的所有组合，留下和每个已揭示数字都一致的，数每格是雷的次数
+    private static double[] bruteForce(MinesweeperEngine engine) {
+        int cells = engine.getCellCount();
+        int[] hidden = new int[cells];
+        int hiddenCount = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!engine.isRevealed(cell / engine.getCols(), cell % engine.getCols())) {
+                hidden[hiddenCount++] = cell;
+            }
+        }
+        long[] mineHits = new long[cells];
+        long[] total = new long[1];
+        enumerate(engine, hidden, hiddenCount, 0, engine.getMineCount(), new boolean[cells], mineHits, total);
+        double[] probability = new double[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            probability[cell] = (double) mineHits[cell] / total[0];
+        }
+        return probability;
+    }
+
+    private static void enumerate(MinesweeperEngine engine, int[] hidden, int hiddenCount, int from, int left,
+                                  boolean[] mine, long[] mineHits, long[] total) {
+        if (left == 0) {
+            if (consistent(engine, mine)) {
+                total[0]++;
+                for (int cell = 0; cell < mine.length; cell++) {
+                    if (mine[cell]) {
+                        mineHits[cell]++;
+                    }
+                }
+            }
+            return;
+        }
+        for (int i = from; i <= hiddenCount - left; i++) {
+            mine[hidden[i]] = true;
+            enumerate(engine, hidden, hiddenCount, i + 1, left - 1, mine, mineHits, total);
+            mine[hidden[i]] = false;
+        }
+    }
+
+    private static boolean consistent(MinesweeperEngine engine, boolean[] mine) {
+        int rows = engine.getRows();
+        int cols = engine.getCols();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (!engine.isRevealed(row, col)) {
+                    continue;
+                }
+                int count = 0;
+                for (int i = row - 1; i <= row + 1; i++) {
+                    for (int j = col - 1; j <= col + 1; j++) {
+                        if (engine.inBounds(i, j) && mine[i * cols + j]) {
+                            count++;
+                        }
+                    }
+                }
+                if (count != engine.adjacentMines(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
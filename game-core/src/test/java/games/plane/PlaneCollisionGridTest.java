@@ -0,0 +1,86 @@
+package games.plane;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 网格粗筛对照 O(子弹 × 敌机) 的两两比较：query 找到的集合、firstHit 是否命中都要一致
+class PlaneCollisionGridTest {
+    private static final double WIDTH = 800;
+    private static final double HEIGHT = 600;
+    private static final double ENEMY_SIZE = 20;
+    private static final int TARGETS = 2000;
+    private static final int QUERIES = 2000;
+
+    @Test
+    void queriesMatchBruteForce() {
+        for (long seed = 0; seed < 10; seed++) {
+            check(seed);
+        }
+    }
+
+    private static void check(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] x = new double[TARGETS];
+        double[] y = new double[TARGETS];
+        double[] width = new double[TARGETS];
+        double[] height = new double[TARGETS];
+        boolean[] alive = new boolean[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            // 有一部分飞出屏幕外，尺寸也不全一样
+            x[i] = random.nextDouble(-50, WIDTH + 50);
+            y[i] = random.nextDouble(-50, HEIGHT + 50);
+            width[i] = random.nextDouble(1, ENEMY_SIZE * 2);
+            height[i] = random.nextDouble(1, ENEMY_SIZE * 2);
+            alive[i] = random.nextInt(5) != 0;
+        }
+        PlaneCollisionGrid grid = new PlaneCollisionGrid(WIDTH, HEIGHT, ENEMY_SIZE);
+        grid.build(x, y, width, height, alive, TARGETS);
+        int living = 0;
+        for (boolean a : alive) {
+            living += a ? 1 : 0;
+        }
+        assertEquals(living, grid.size());
+
+        // 建好网格之后再杀掉一些，firstHit 要跳过它们
+        boolean[] now = alive.clone();
+        for (int i = 0; i < TARGETS / 10; i++) {
+            now[random.nextInt(TARGETS)] = false;
+        }
+
+        int[] out = new int[TARGETS];
+        for (int q = 0; q < QUERIES; q++) {
+            double minX = random.nextDouble(-30, WIDTH + 30);
+            double minY = random.nextDouble(-30, HEIGHT + 30);
+            double maxX = minX + random.nextDouble(0.5, 60);
+            double maxY = minY + random.nextDouble(0.5, 60);
+
+            int[] expected = bruteForce(x, y, width, height, alive, minX, minY, maxX, maxY);
+            int found = grid.query(minX, minY, maxX, maxY, out);
+            int[] actual = Arrays.copyOf(out, found);
+            Arrays.sort(actual);
+            assertArrayEquals(expected, actual);
+
+            int[] expectedNow = bruteForce(x, y, width, height, now, minX, minY, maxX, maxY);
+            int hit = grid.firstHit(minX, minY, maxX, maxY, now);
+            if (expectedNow.length == 0) {
+                assertEquals(-1, hit);
+            } else {
+                assertTrue(Arrays.binarySearch(expectedNow, hit) >= 0, "firstHit returned a non-overlapping target");
+            }
+        }
+    }
+
+    private static int[] bruteForce(double[] x, double[] y, double[] width, double[] height, boolean[] alive,
+                                    double minX, double minY, double maxX, double maxY) {
+        return IntStream.range(0, x.length)
+                .filter(i -> alive[i] && x[i] < maxX && minX < x[i] + width[i] && y[i] < maxY && minY < y[i] + height[i])
+                .toArray();
+    }
+}
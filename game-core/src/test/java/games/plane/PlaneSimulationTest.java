@@ -0,0 +1,66 @@
+package games.plane;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 并行的各阶段不能改变结果：单线程和不同大小的线程池跑同一段压测，校验和必须完全一样；
+// 基准测试用的碰撞钩子跑完要把局面原样留下
+class PlaneSimulationTest {
+    private static final int ENTITIES = 20_000; // 超过并行阈值，各阶段都会拆分
+    private static final int STEPS = 60;
+
+    @Test
+    void parallelMatchesSequential() {
+        PlaneSimulation simulation = new PlaneSimulation(42L, ENTITIES);
+        long sequential = PlaneHeadless.crowd(simulation, ENTITIES, STEPS, 42L);
+        for (int threads : new int[]{1, 2, 4, 7}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                simulation.setPool(pool);
+                assertEquals(sequential, PlaneHeadless.crowd(simulation, ENTITIES, STEPS, 42L), threads + " threads");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void collideAndUndoLeavesTheCrowdUnchanged() {
+        // 基准测试反复调用的碰撞钩子：每次结果一样，调用前后实体数和分数不变，单线程和并行打中的数目相同
+        PlaneSimulation simulation = new PlaneSimulation(42L, ENTITIES);
+        PlaneHeadless.crowd(simulation, ENTITIES, 1, 42L);
+        int entities = simulation.getEntityCount();
+        int score = simulation.getScore();
+        int hits = simulation.collideAndUndo();
+        assertEquals(hits, simulation.collideAndUndo());
+        assertEquals(entities, simulation.getEntityCount());
+        assertEquals(score, simulation.getScore());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            simulation.setPool(pool);
+            assertEquals(hits, simulation.collideAndUndo());
+            assertEquals(entities, simulation.getEntityCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void sameSeedSameGame() {
+        PlaneSimulation first = new PlaneSimulation(7L);
+        PlaneSimulation second = new PlaneSimulation(7L);
+        for (int step = 0; step < 5000 && !first.isOver(); step++) {
+            int input = PlaneHeadless.scriptedInput(first);
+            assertEquals(input, PlaneHeadless.scriptedInput(second));
+            first.step(input);
+            second.step(input);
+            assertEquals(first.getScore(), second.getScore());
+            assertEquals(first.getEntityCount(), second.getEntityCount());
+            assertEquals(first.getPlayerX(), second.getPlayerX());
+        }
+        assertEquals(first.isOver(), second.isOver());
+    }
+}
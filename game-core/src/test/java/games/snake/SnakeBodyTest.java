@@ -0,0 +1,87 @@
+package games.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 蛇身对照一个双端队列：随机移动、长大、缩短、放障碍物和道具，
+// 每一步检查蛇身顺序、占用位图和空格子数（格子总数 - 蛇身 - 障碍物 - 还没被吃掉的道具）
+class SnakeBodyTest {
+    private static final int COLS = 12;
+    private static final int ROWS = 9;
+    private static final int[][] MOVES = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
+
+    @Test
+    void randomWalkKeepsInvariants() {
+        for (long seed = 0; seed < 20; seed++) {
+            walk(seed);
+        }
+    }
+
+    private static void walk(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SnakeBody body = new SnakeBody(COLS, ROWS);
+        body.reset(COLS / 2, ROWS / 2);
+        ArrayDeque<Integer> snake = new ArrayDeque<>();
+        snake.addFirst(ROWS / 2 * COLS + COLS / 2);
+        Set<Integer> obstacles = new HashSet<>();
+        Set<Integer> items = new HashSet<>();
+
+        for (int step = 0; step < 2000; step++) {
+            int action = random.nextInt(20);
+            if (action == 0) {
+                int cell = body.spawn(random.nextLong());
+                if (cell >= 0) {
+                    items.add(cell);
+                }
+            } else if (action == 1) {
+                int cell = body.spawn(random.nextLong());
+                if (cell >= 0) {
+                    body.block(cell);
+                    obstacles.add(cell);
+                }
+            } else if (action == 2) {
+                body.shrink();
+                if (snake.size() > 1) {
+                    snake.removeLast();
+                }
+            } else {
+                int[] move = MOVES[random.nextInt(MOVES.length)];
+                int col = body.headCol() + move[0];
+                int row = body.headRow() + move[1];
+                boolean grow = random.nextInt(4) == 0;
+                int cell = row * COLS + col;
+                boolean free = body.inBounds(col, row) && !obstacles.contains(cell)
+                        && (!snake.contains(cell) || (!grow && cell == snake.peekLast() && snake.size() > 1));
+                assertEquals(free, body.advance(col, row, grow));
+                if (free) {
+                    if (!grow) {
+                        snake.removeLast();
+                    }
+                    snake.addFirst(cell);
+                    items.remove(cell);
+                }
+            }
+            check(body, snake, obstacles, items);
+        }
+    }
+
+    private static void check(SnakeBody body, ArrayDeque<Integer> snake, Set<Integer> obstacles, Set<Integer> items) {
+        assertEquals(snake.size(), body.length());
+        Iterator<Integer> it = snake.iterator();
+        for (int i = 0; i < body.length(); i++) {
+            assertEquals((int) it.next(), body.cell(i));
+        }
+        for (int cell = 0; cell < COLS * ROWS; cell++) {
+            boolean occupied = snake.contains(cell) || obstacles.contains(cell);
+            assertEquals(occupied, body.isOccupied(cell % COLS, cell / COLS), "cell " + cell);
+        }
+        assertEquals(COLS * ROWS - snake.size() - obstacles.size() - items.size(), body.freeCount());
+    }
+}
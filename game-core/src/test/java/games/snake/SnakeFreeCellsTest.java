@@ -0,0 +1,118 @@
+package games.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 空格子索引对照一个布尔数组：随机增、删、取之后 size、contains 和取出的格子都要对得上
+class SnakeFreeCellsTest {
+    private static final int CELLS = 200;
+
+    @Test
+    void randomOperationsMatchReference() {
+        SplittableRandom random = new SplittableRandom(42);
+        SnakeFreeCells free = new SnakeFreeCells(CELLS);
+        boolean[] expected = new boolean[CELLS];
+        Arrays.fill(expected, true);
+        int size = CELLS;
+        for (int op = 0; op < 100_000; op++) {
+            int cell = random.nextInt(CELLS);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    free.add(cell);
+                    if (!expected[cell]) {
+                        expected[cell] = true;
+                        size++;
+                    }
+                }
+                case 1 -> {
+                    free.remove(cell);
+                    if (expected[cell]) {
+                        expected[cell] = false;
+                        size--;
+                    }
+                }
+                default -> {
+                    int taken = free.take(random.nextLong());
+                    if (size == 0) {
+                        assertEquals(-1, taken);
+                    } else {
+                        assertTrue(expected[taken], "took a cell that was not free");
+                        expected[taken] = false;
+                        size--;
+                    }
+                }
+            }
+            assertEquals(size, free.size());
+            if (op % 97 == 0) {
+                for (int i = 0; i < CELLS; i++) {
+                    assertEquals(expected[i], free.contains(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void restoreReproducesTakeOrder() {
+        SnakeFreeCells free = new SnakeFreeCells(CELLS);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 50; i++) {
+            free.remove(random.nextInt(CELLS));
+        }
+        int[] order = free.order();
+        int size = free.size();
+        int[] first = new int[20];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = free.take(i * 0x9E3779B97F4A7C15L);
+        }
+
+        SnakeFreeCells copy = new SnakeFreeCells(CELLS);
+        copy.restore(order, size);
+        assertEquals(size, copy.size());
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(first[i], copy.take(i * 0x9E3779B97F4A7C15L));
+        }
+    }
+
+    @Test
+    void sortDependsOnlyOnWhichCellsAreFree() {
+        // 同一组空格子，不管增删顺序如何，排序以后取出的顺序都一样
+        SnakeFreeCells shuffled = new SnakeFreeCells(CELLS);
+        SnakeFreeCells rebuilt = new SnakeFreeCells(CELLS);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 300; i++) {
+            int cell = random.nextInt(CELLS);
+            if (random.nextBoolean()) {
+                shuffled.remove(cell);
+            } else {
+                shuffled.add(cell);
+            }
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (!shuffled.contains(cell)) {
+                rebuilt.remove(cell);
+            }
+        }
+        shuffled.sort();
+        rebuilt.sort();
+        assertEquals(shuffled.size(), rebuilt.size());
+        while (shuffled.size() > 0) {
+            long bits = random.nextLong();
+            assertEquals(shuffled.take(bits), rebuilt.take(bits));
+        }
+    }
+
+    @Test
+    void takeFromEmptyReturnsMinusOne() {
+        SnakeFreeCells free = new SnakeFreeCells(3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(free.take(i) >= 0);
+        }
+        assertEquals(0, free.size());
+        assertEquals(-1, free.take(0));
+    }
+}
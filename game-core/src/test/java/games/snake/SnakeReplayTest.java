@@ -0,0 +1,121 @@
+package games.snake;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 录像：自动驾驶下一局并录制，读回来重放，结束状态和任意一步的状态都要和原来的对局一样
+class SnakeReplayTest {
+    private static final int SIZE = 20;
+    private static final int MAX_STEPS = 5000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayReproducesRecordedGame() {
+        for (long seed = 1; seed <= 5; seed++) {
+            roundTrip(seed);
+        }
+    }
+
+    @Test
+    void unclosedRecordingPlaysUpToLastCheckpoint() {
+        // 不关录像就丢掉，模拟录制中途进程被杀：文件里至少要有最后一个检查点之前的对局
+        Path file = directory.resolve("crashed.rpl");
+        SnakeSimulation simulation = new SnakeSimulation(SIZE, SIZE, 3);
+        SnakeAutopilot autopilot = new SnakeAutopilot(SIZE, SIZE);
+        SnakeReplay.Recorder recorder = SnakeReplay.record(file, simulation);
+        long target = 2L * SnakeReplay.KEYFRAME_INTERVAL + 17;
+        int[] body = null;
+        while (!simulation.isOver() && simulation.getTick() < target) {
+            recorder.step(autopilot.decide(simulation));
+            if (simulation.getTick() == 2L * SnakeReplay.KEYFRAME_INTERVAL) {
+                body = body(simulation);
+            }
+        }
+        assertEquals(target, simulation.getTick(), "autopilot died before the second checkpoint");
+
+        SnakeReplay.Player player = SnakeReplay.open(file);
+        assertFalse(player.isComplete());
+        assertEquals(2L * SnakeReplay.KEYFRAME_INTERVAL, player.getEndTick());
+        assertTrue(player.verify());
+        assertArrayEquals(body, body(player.getSimulation()));
+        recorder.close();
+    }
+
+    @Test
+    void snapshotBetweenKeyframesRestoresTheSameGame() {
+        // 两次排序之间的快照要带上空格子的排列，恢复以后之后的苹果位置和原局一样
+        SnakeSimulation simulation = new SnakeSimulation(SIZE, SIZE, 11);
+        SnakeAutopilot autopilot = new SnakeAutopilot(SIZE, SIZE);
+        while (!simulation.isOver() && simulation.getTick() < SnakeReplay.KEYFRAME_INTERVAL + 100) {
+            simulation.step(autopilot.decide(simulation));
+        }
+        SnakeSimulation.Snapshot snapshot = simulation.snapshot();
+        SnakeSimulation copy = new SnakeSimulation(SIZE, SIZE, 11);
+        copy.restore(snapshot);
+        SnakeAutopilot copyAutopilot = new SnakeAutopilot(SIZE, SIZE);
+        for (int i = 0; i < 2 * SnakeReplay.KEYFRAME_INTERVAL && !simulation.isOver(); i++) {
+            simulation.step(autopilot.decide(simulation));
+            copy.step(copyAutopilot.decide(copy));
+            assertEquals(simulation.getTick(), copy.getTick());
+            assertEquals(simulation.getScore(), copy.getScore());
+            assertArrayEquals(body(simulation), body(copy));
+        }
+    }
+
+    private void roundTrip(long seed) {
+        Path file = directory.resolve("game_" + seed + ".rpl");
+        SnakeSimulation simulation = new SnakeSimulation(SIZE, SIZE, seed);
+        SnakeAutopilot autopilot = new SnakeAutopilot(SIZE, SIZE);
+        // 记下路过的每个整 KEYFRAME_INTERVAL 步的蛇身，回放时逐个核对
+        int checkpoints = MAX_STEPS / SnakeReplay.KEYFRAME_INTERVAL + 1;
+        int[][] bodies = new int[checkpoints][];
+        int[] scores = new int[checkpoints];
+        try (SnakeReplay.Recorder recorder = SnakeReplay.record(file, simulation)) {
+            while (!simulation.isOver() && simulation.getTick() < MAX_STEPS) {
+                recorder.step(autopilot.decide(simulation));
+                if (simulation.getTick() % SnakeReplay.KEYFRAME_INTERVAL == 0) {
+                    int index = (int) (simulation.getTick() / SnakeReplay.KEYFRAME_INTERVAL);
+                    bodies[index] = body(simulation);
+                    scores[index] = simulation.getScore();
+                }
+            }
+        }
+
+        SnakeReplay.Player player = SnakeReplay.open(file);
+        assertEquals(simulation.getTick(), player.getEndTick());
+        assertTrue(player.verify(), "replay diverged from recording, seed " + seed);
+        SnakeSimulation replayed = player.getSimulation();
+        assertEquals(simulation.getScore(), replayed.getScore());
+        assertEquals(simulation.isOver(), replayed.isOver());
+        assertArrayEquals(body(simulation), body(replayed));
+
+        // 倒着跳，每次都从快照恢复
+        for (int index = checkpoints - 1; index > 0; index--) {
+            if (bodies[index] == null) {
+                continue;
+            }
+            player.seek((long) index * SnakeReplay.KEYFRAME_INTERVAL);
+            assertEquals((long) index * SnakeReplay.KEYFRAME_INTERVAL, replayed.getTick());
+            assertEquals(scores[index], replayed.getScore());
+            assertArrayEquals(bodies[index], body(replayed));
+        }
+    }
+
+    private static int[] body(SnakeSimulation simulation) {
+        SnakeBody snake = simulation.getSnake();
+        int[] cells = new int[snake.length()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = snake.cell(i);
+        }
+        return cells;
+    }
+}
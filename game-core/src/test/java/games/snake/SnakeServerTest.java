@@ -0,0 +1,49 @@
+package games.snake;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// 服务器：连上以后先收到整帧；关掉服务器时客户端要读到连接结束，而不是一直挂着
+class SnakeServerTest {
+    @Test
+    void closeEndsClientConnections() throws IOException {
+        SnakeServer server = new SnakeServer(0, 1, 20, 20, 42L);
+        try (Socket client = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            client.setSoTimeout(5000);
+            DataInputStream in = new DataInputStream(client.getInputStream());
+            int length = in.readInt();
+            assertEquals(SnakeServer.FULL, in.readByte());
+            in.skipNBytes(length - 1);
+
+            server.close();
+            // 关之前可能还有几帧在路上，读完以后必须是结束
+            InputStream raw = client.getInputStream();
+            byte[] buffer = new byte[4096];
+            while (raw.read(buffer) >= 0) {
+                // 丢掉剩下的帧
+            }
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void rejectsBoardsTooLargeForTheFrameHeader() {
+        assertThrows(IllegalArgumentException.class, () -> new SnakeServer(0, 1, Short.MAX_VALUE + 1, 20, 0L));
+        assertThrows(IllegalArgumentException.class, () -> new SnakeServer(0, 1, 20, 0, 0L));
+    }
+
+    @Test
+    void frameLimitFitsAFullDeltaOnSmallBoards() {
+        assertEquals(21 + 5 * SnakeSimulation.DIRTY_CAPACITY, SnakeServer.frameLimit(4, 4));
+        assertEquals(64 + 4 * 400, SnakeServer.frameLimit(20, 20));
+    }
+}
@@ -0,0 +1,244 @@
+package games.snake;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+// 主动渲染：游戏循环线程直接调用 render()，不经过 Swing 的 repaint。
+// 背景和障碍物只在障碍物重新生成时画一次到缓存图里；棋盘图层每帧只补画模拟报告的脏格子
+// （新蛇头、旧蛇头、放开的蛇尾、苹果和道具），拷到 BufferStrategy 上时也只拷这些格子和 HUD 那一块，
+// 后备缓冲区里的旧内容靠不住时才整张拷
+public class SnakeCanvasRenderer extends Canvas {
+    private static final Color BACKGROUND_COLOR = Color.black;
+    private static final Color OBSTACLE_COLOR = Color.gray;
+    private static final Color APPLE_COLOR = Color.red;
+    private static final Color ITEM_COLOR = Color.orange;
+    private static final Color HEAD_COLOR = Color.green;
+    private static final Color BODY_COLOR = new Color(45, 180, 0);
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final int HUD_WIDTH = 200; // HUD 文字所在的区域，每帧先用棋盘图层盖住再写
+    private static final int HUD_HEIGHT = 70;
+
+    private final SnakeSimulation simulation;
+    private final int unitSize; // 单元格大小（像素）
+    private final int width;
+    private final int height;
+
+    private BufferStrategy strategy;
+    private BufferedImage staticLayer; // 背景和障碍物，障碍物重新生成之前不再变
+    private int staticVersion; // staticLayer 画的是哪一版障碍物
+    private VolatileImage boardLayer; // 静态层加上蛇、苹果和道具，按脏格子增量更新
+    private int backBufferAge; // 翻页后后备缓冲区里是几帧之前的画面，0 表示内容不确定
+    private int[] changed = new int[0]; // 这一帧补画过的格子
+    private int changedCount;
+    private int[] previousChanged = new int[0]; // 上一帧补画过的格子
+    private int previousChangedCount;
+    private boolean previousCopiedAll;
+    private long frameNanos; // 上一帧的耗时，显示在 HUD 上
+
+    public SnakeCanvasRenderer(SnakeSimulation simulation, int unitSize) {
+        this.simulation = simulation;
+        this.unitSize = unitSize;
+        this.width = simulation.getCols() * unitSize;
+        this.height = simulation.getRows() * unitSize;
+        setPreferredSize(new Dimension(width, height));
+        setBackground(BACKGROUND_COLOR);
+        setIgnoreRepaint(true); // 全部由 render() 画
+    }
+
+    // 画一帧，调用方需要持有模拟的锁
+    public void render() {
+        if (!isDisplayable()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (strategy == null) {
+            createBufferStrategy(2);
+            strategy = getBufferStrategy();
+            backBufferAge = backBufferAge(strategy.getCapabilities());
+        }
+        boolean copyAll = updateBoardLayer() || backBufferAge == 0
+                || (backBufferAge == 2 && previousCopiedAll) || simulation.isOver();
+        boolean restored;
+        boolean lost;
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    if (copyAll) {
+                        g.drawImage(boardLayer, 0, 0, null);
+                    } else {
+                        // 后备缓冲区里是上一帧（或上上帧）的画面，只要补上这之后变过的格子
+                        copyCells(g, changed, changedCount);
+                        if (backBufferAge == 2) {
+                            copyCells(g, previousChanged, previousChangedCount);
+                        }
+                        copyRect(g, 0, 0, Math.min(HUD_WIDTH, width), Math.min(HUD_HEIGHT, height));
+                    }
+                    drawHud(g);
+                } finally {
+                    g.dispose();
+                }
+                restored = strategy.contentsRestored();
+                copyAll |= restored;
+            } while (restored);
+            strategy.show();
+            lost = strategy.contentsLost();
+            copyAll |= lost;
+        } while (lost);
+        Toolkit.getDefaultToolkit().sync();
+        int[] swap = previousChanged;
+        previousChanged = changed;
+        previousChangedCount = changedCount;
+        changed = swap;
+        previousCopiedAll = copyAll;
+        frameNanos = System.nanoTime() - start;
+    }
+
+    private static int backBufferAge(BufferCapabilities capabilities) {
+        // 不翻页（blit）或者翻页时把内容拷过去，后备缓冲区留着上一帧；PRIOR 是上上帧；其他情况内容不确定
+        if (!capabilities.isPageFlipping() || capabilities.getFlipContents() == BufferCapabilities.FlipContents.COPIED) {
+            return 1;
+        }
+        return capabilities.getFlipContents() == BufferCapabilities.FlipContents.PRIOR ? 2 : 0;
+    }
+
+    private void copyCells(Graphics2D g, int[] cells, int count) {
+        int cols = simulation.getCols();
+        for (int i = 0; i < count; i++) {
+            copyRect(g, cells[i] % cols * unitSize, cells[i] / cols * unitSize, unitSize, unitSize);
+        }
+    }
+
+    private void copyRect(Graphics2D g, int x, int y, int w, int h) {
+        g.drawImage(boardLayer, x, y, x + w, y + h, x, y, x + w, y + h, null);
+    }
+
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+
+    // 补画棋盘图层并取走脏格子；整张重画了返回 true
+    private boolean updateBoardLayer() {
+        // 显存里的图层可能丢失，丢失或者脏格子攒太多时整张重画，否则只补画脏格子
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        boolean full = simulation.needsFullRedraw();
+        if (staticLayer == null || staticVersion != simulation.getObstacleVersion()) {
+            // 静态层只跟着障碍物变，脏格子溢出不用重画它
+            if (staticLayer == null) {
+                staticLayer = gc.createCompatibleImage(width, height);
+            }
+            Graphics2D g = staticLayer.createGraphics();
+            try {
+                drawStaticLayer(g);
+            } finally {
+                g.dispose();
+            }
+            staticVersion = simulation.getObstacleVersion();
+            full = true;
+        }
+        int status = boardLayer == null ? VolatileImage.IMAGE_INCOMPATIBLE : boardLayer.validate(gc);
+        if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+            boardLayer = createVolatileImage(width, height);
+        }
+        if (status != VolatileImage.IMAGE_OK) {
+            full = true;
+        }
+        Graphics2D g = boardLayer.createGraphics();
+        try {
+            if (full) {
+                drawBoard(g);
+            } else {
+                drawDirty(g);
+            }
+        } finally {
+            g.dispose();
+        }
+        // 记下补画过的格子，拷到屏幕上时只拷这些
+        changedCount = full ? 0 : simulation.dirtyCount();
+        if (changed.length < changedCount) {
+            changed = new int[changedCount];
+        }
+        for (int i = 0; i < changedCount; i++) {
+            changed[i] = simulation.dirtyCell(i);
+        }
+        simulation.clearDirty();
+        return full;
+    }
+
+    void drawStaticLayer(Graphics2D g) {
+        g.setColor(BACKGROUND_COLOR);
+        g.fillRect(0, 0, width, height);
+        g.setColor(OBSTACLE_COLOR);
+        int cols = simulation.getCols();
+        for (int i = 0; i < simulation.getObstacleCount(); i++) {
+            int cell = simulation.obstacle(i);
+            g.fillRect(cell % cols * unitSize, cell / cols * unitSize, unitSize, unitSize);
+        }
+    }
+
+    void drawBoard(Graphics2D g) {
+        g.drawImage(staticLayer, 0, 0, null);
+        SnakeBody snake = simulation.getSnake();
+        for (int i = 0; i < snake.length(); i++) {
+            drawCell(g, snake.cell(i));
+        }
+        drawCell(g, simulation.getAppleCell());
+        drawCell(g, simulation.getSpecialItemCell());
+    }
+
+    void drawDirty(Graphics2D g) {
+        for (int i = 0; i < simulation.dirtyCount(); i++) {
+            drawCell(g, simulation.dirtyCell(i));
+        }
+    }
+
+    private void drawCell(Graphics2D g, int cell) {
+        // 先用静态层盖住这个格子，再画它现在的内容
+        if (cell < 0) {
+            return;
+        }
+        int cols = simulation.getCols();
+        int col = cell % cols;
+        int row = cell / cols;
+        int x = col * unitSize;
+        int y = row * unitSize;
+        g.drawImage(staticLayer, x, y, x + unitSize, y + unitSize, x, y, x + unitSize, y + unitSize, null);
+        SnakeBody snake = simulation.getSnake();
+        if (cell == simulation.getAppleCell()) {
+            g.setColor(APPLE_COLOR);
+            g.fillOval(x, y, unitSize, unitSize);
+        } else if (cell == simulation.getSpecialItemCell()) {
+            g.setColor(ITEM_COLOR);
+            g.fillOval(x, y, unitSize, unitSize);
+            if (unitSize >= 12) {
+                g.setColor(Color.black);
+                g.setFont(HUD_FONT);
+                g.drawString(Character.toString(simulation.getSpecialItemType()), x + unitSize / 2 - 3, y + unitSize * 3 / 4);
+            }
+        } else if (cell == snake.cell(0)) {
+            g.setColor(HEAD_COLOR);
+            g.fillRect(x, y, unitSize, unitSize);
+        } else if (snake.isOccupied(col, row)) {
+            // 脏格子不会是障碍物，占用的就是蛇身
+            g.setColor(BODY_COLOR);
+            g.fillRect(x, y, unitSize, unitSize);
+        }
+    }
+
+    private void drawHud(Graphics2D g) {
+        // 得分、难度和帧耗时画在拷贝之后，不进棋盘图层
+        g.setColor(Color.white);
+        g.setFont(HUD_FONT);
+        g.drawString("Score: " + simulation.getScore(), 10, 20);
+        g.drawString("Difficulty: " + simulation.getDifficulty(), 10, 40);
+        g.drawString("Frame: " + frameNanos / 1000 + " us", 10, 60);
+        if (simulation.isOver()) {
+            g.setFont(GAME_OVER_FONT);
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString("Game Over", (width - metrics.stringWidth("Game Over")) / 2, height / 2);
+        }
+    }
+}
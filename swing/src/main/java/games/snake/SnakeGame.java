@@ -0,0 +1,373 @@
+package games.snake;
+
+// 导入所需的库
+import games.core.FixedStepClock;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+// Swing 界面：游戏规则都在 SnakeSimulation 里，这里只负责输入和绘制。
+// 独立的游戏循环线程按固定时间步推进模拟，绘制时在上一步和这一步之间插值，
+// EDT 上的布局或 GC 停顿只会让画面晚一点，不会让游戏节奏抖动。
+// 大棋盘（或 --canvas）改用 SnakeCanvasRenderer 主动渲染，只画变化的格子
+public class SnakeGame extends JPanel implements KeyListener {
+    // 默认网格的列数和行数
+    private static final int COLS = 20;
+    private static final int ROWS = 20;
+
+    // 默认单元格大小
+    private static final int UNIT_SIZE = 20;
+
+    // 超过这个格子数就改用 Canvas 主动渲染
+    private static final int CANVAS_LIMIT = 100 * 100;
+
+    // 绘制用的颜色和字体，只创建一次
+    private static final Color BODY_COLOR = new Color(45, 180, 0);
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 20);
+
+    // 画面刷新间隔（约 120 帧每秒）
+    private static final long FRAME_NANOS = 1_000_000_000L / 120;
+
+    // 一帧最多追赶的步数，落后更多时直接丢掉积压的时间
+    private static final int MAX_STEPS_PER_FRAME = 5;
+
+    // 每局的录像都存到这个目录
+    private static final Path REPLAY_DIR = Paths.get("snake-replays");
+
+    // 回放时左右方向键一次跳过的步数
+    private static final int SEEK_TICKS = 50;
+
+    // 网格和窗口尺寸
+    private final int cols;
+    private final int unitSize;
+    private final int width;
+    private final int height;
+
+    // 游戏状态；游戏循环线程推进它，EDT 或渲染器绘制它，两边都锁住它
+    private final SnakeSimulation simulation;
+
+    // Canvas 主动渲染（大棋盘模式），为 null 时用 Swing 的 paintComponent
+    private final SnakeCanvasRenderer renderer;
+
+    // 下一步要转的方向，按键时写入，游戏循环取走
+    private volatile char pendingTurn = SnakeSimulation.NONE;
+
+    // 自动驾驶，打开时代替方向键（P 键切换）
+    private final SnakeAutopilot autopilot;
+    private volatile boolean autopilotEnabled;
+
+    // 回放模式下的录像，为 null 时是正常游戏
+    private final SnakeReplay.Player player;
+
+    // 正在录制的录像（正常游戏时）
+    private SnakeReplay.Recorder recorder;
+
+    // 游戏循环是否正在运行
+    private volatile boolean running = false;
+
+    // 距离上一步过去了多少个时间步（0 到 1），绘制时插值用
+    private double alpha;
+
+    public SnakeGame() {
+        this(COLS, ROWS, UNIT_SIZE, false);
+    }
+
+    public SnakeGame(int cols, int rows, int unitSize, boolean useCanvas) {
+        this(new SnakeSimulation(cols, rows, System.nanoTime()), null, unitSize, useCanvas);
+    }
+
+    // 回放录像，左右方向键前后跳，空格从头再放
+    public SnakeGame(SnakeReplay.Player player, int unitSize, boolean useCanvas) {
+        this(player.getSimulation(), player, unitSize, useCanvas);
+    }
+
+    private SnakeGame(SnakeSimulation simulation, SnakeReplay.Player player, int unitSize, boolean useCanvas) {
+        int cols = simulation.getCols();
+        int rows = simulation.getRows();
+        this.cols = cols;
+        this.unitSize = unitSize;
+        this.width = cols * unitSize;
+        this.height = rows * unitSize;
+        this.simulation = simulation;
+        this.player = player;
+        this.autopilot = new SnakeAutopilot(cols, rows);
+        setPreferredSize(new Dimension(width, height));
+        setBackground(Color.black);
+        setFocusable(true);
+        addKeyListener(this);
+        if (useCanvas || cols * rows > CANVAS_LIMIT) {
+            renderer = new SnakeCanvasRenderer(simulation, unitSize);
+            renderer.addKeyListener(this);
+            setLayout(new BorderLayout());
+            add(renderer, BorderLayout.CENTER);
+        } else {
+            renderer = null;
+        }
+        startGame();
+    }
+
+    private void startGame() {
+        if (player == null) {
+            synchronized (simulation) {
+                recorder = SnakeReplay.record(REPLAY_DIR.resolve("snake_" + Long.toHexString(simulation.getSeed()) + ".rpl"), simulation);
+            }
+        }
+        running = true;
+        Thread loop = new Thread(this::gameLoop, "snake-loop");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    private void gameLoop() {
+        // 固定时间步：真实时间累积起来，每攒够一步的时长就推进一步，剩下的部分用来插值
+        FixedStepClock clock = new FixedStepClock(MAX_STEPS_PER_FRAME);
+        clock.frame(System.nanoTime());
+        while (running) {
+            long now = System.nanoTime();
+            clock.frame(now);
+            boolean alive = true;
+            synchronized (simulation) {
+                long stepNanos = simulation.getDelay() * 1_000_000L;
+                while (alive && clock.tryStep(stepNanos)) {
+                    if (player != null) {
+                        alive = player.step();
+                    } else {
+                        char turn = autopilotEnabled ? autopilot.decide(simulation) : pendingTurn;
+                        pendingTurn = SnakeSimulation.NONE;
+                        alive = recorder.step(turn);
+                    }
+                    stepNanos = simulation.getDelay() * 1_000_000L;
+                }
+                alpha = alive ? clock.alpha(stepNanos) : 1;
+                if (renderer != null) {
+                    renderer.render();
+                }
+            }
+            if (renderer == null) {
+                repaint();
+            }
+            if (!alive) {
+                // 先写完录像再清 running：清掉之后空格键随时会开新局，换上新的 recorder
+                if (player == null) {
+                    closeRecorder();
+                    SwingUtilities.invokeLater(this::gameOver);
+                }
+                running = false;
+                return;
+            }
+            LockSupport.parkNanos(FRAME_NANOS - (System.nanoTime() - now));
+        }
+    }
+
+    // 写完录像的结尾；游戏结束或者关窗口时调用
+    private void closeRecorder() {
+        synchronized (simulation) {
+            if (recorder != null) {
+                recorder.close();
+                recorder = null;
+            }
+        }
+    }
+
+    private void gameOver() {
+        JOptionPane.showMessageDialog(this, "Game Over! Your Score: " + simulation.getScore(), "Game Over", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (renderer != null) {
+            return; // Canvas 模式下由渲染器画，脏格子也只能由它取走
+        }
+        synchronized (simulation) {
+            draw(g);
+            simulation.clearDirty(); // 这里总是整屏重画，不需要脏格子
+        }
+    }
+
+    private void draw(Graphics g) {
+        if (!simulation.isOver()) {
+            // 绘制苹果
+            int appleCell = simulation.getAppleCell();
+            g.setColor(Color.red);
+            if (appleCell >= 0) {
+                g.fillOval(cellX(appleCell), cellY(appleCell), unitSize, unitSize);
+            }
+
+            // 绘制特殊道具
+            int specialItemCell = simulation.getSpecialItemCell();
+            if (specialItemCell >= 0) {
+                int itemX = cellX(specialItemCell);
+                int itemY = cellY(specialItemCell);
+                g.setColor(Color.orange);
+                g.fillOval(itemX, itemY, unitSize, unitSize);
+                g.setColor(Color.black);
+                g.drawString(Character.toString(simulation.getSpecialItemType()), itemX + 7, itemY + 15);
+            }
+
+            // 绘制障碍物
+            g.setColor(Color.gray);
+            for (int i = 0; i < simulation.getObstacleCount(); i++) {
+                int cell = simulation.obstacle(i);
+                g.fillRect(cellX(cell), cellY(cell), unitSize, unitSize);
+            }
+
+            // 绘制蛇：第 i 节从上一步的位置（第 i+1 节现在的位置）滑到现在的位置
+            SnakeBody snake = simulation.getSnake();
+            int length = snake.length();
+            for (int i = 0; i < length; i++) {
+                if (i == 0) {
+                    g.setColor(Color.green);
+                } else {
+                    g.setColor(BODY_COLOR);
+                }
+                int to = snake.cell(i);
+                int from = i + 1 < length ? snake.cell(i + 1) : simulation.getPreviousTail();
+                if (from < 0) {
+                    from = to;
+                }
+                int x = (int) Math.round(cellX(from) + (cellX(to) - cellX(from)) * alpha);
+                int y = (int) Math.round(cellY(from) + (cellY(to) - cellY(from)) * alpha);
+                g.fillRect(x, y, unitSize, unitSize);
+            }
+
+            // 绘制得分和难度级别
+            g.setColor(Color.white);
+            g.setFont(HUD_FONT);
+            g.drawString("Score: " + simulation.getScore(), 10, 20);
+            g.drawString("Difficulty: " + simulation.getDifficulty(), 10, 40);
+        } else {
+            // 游戏结束时显示游戏结束的提示信息
+            g.setColor(Color.white);
+            g.setFont(GAME_OVER_FONT);
+            FontMetrics metrics = getFontMetrics(g.getFont());
+            g.drawString("Game Over", (width - metrics.stringWidth("Game Over")) / 2, height / 2);
+        }
+    }
+
+    private int cellX(int cell) {
+        return cell % cols * unitSize;
+    }
+
+    private int cellY(int cell) {
+        return cell / cols * unitSize;
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        // 方向键只记下要转的方向，掉头由模拟忽略
+        int key = e.getKeyCode();
+        if (player != null) {
+            replayKeyPressed(key);
+            return;
+        }
+        switch (key) {
+            case KeyEvent.VK_UP:
+                pendingTurn = 'U';
+                break;
+            case KeyEvent.VK_DOWN:
+                pendingTurn = 'D';
+                break;
+            case KeyEvent.VK_LEFT:
+                pendingTurn = 'L';
+                break;
+            case KeyEvent.VK_RIGHT:
+                pendingTurn = 'R';
+                break;
+            case KeyEvent.VK_P:
+                autopilotEnabled = !autopilotEnabled;
+                break;
+            case KeyEvent.VK_SPACE:
+                if (!running) {
+                    resetGame();
+                }
+                break;
+        }
+    }
+
+    private void replayKeyPressed(int key) {
+        long tick;
+        switch (key) {
+            case KeyEvent.VK_LEFT:
+                tick = simulation.getTick() - SEEK_TICKS;
+                break;
+            case KeyEvent.VK_RIGHT:
+                tick = simulation.getTick() + SEEK_TICKS;
+                break;
+            case KeyEvent.VK_SPACE:
+                tick = 0;
+                break;
+            default:
+                return;
+        }
+        synchronized (simulation) {
+            player.seek(tick);
+            alpha = 1;
+        }
+        if (!running && !player.isFinished()) {
+            startGame();
+        }
+        if (renderer == null) {
+            repaint();
+        }
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+    }
+
+    private void resetGame() {
+        // 重置游戏状态和参数
+        synchronized (simulation) {
+            simulation.reset(System.nanoTime());
+            alpha = 0;
+        }
+        pendingTurn = SnakeSimulation.NONE;
+        startGame();
+    }
+
+    public static void main(String[] args) {
+        // 参数：[列数 行数 [单元格大小]] [--canvas] [--autopilot]，或者 --replay 录像文件 [--canvas]
+        List<String> params = new ArrayList<>(Arrays.asList(args));
+        boolean useCanvas = params.remove("--canvas");
+        boolean useAutopilot = params.remove("--autopilot");
+        SnakeReplay.Player player = null;
+        int replayIndex = params.indexOf("--replay");
+        if (replayIndex >= 0 && replayIndex + 1 < params.size()) {
+            player = SnakeReplay.open(Paths.get(params.remove(replayIndex + 1)));
+            params.remove(replayIndex);
+        }
+        int cols = player != null ? player.getSimulation().getCols()
+                : params.size() >= 2 ? Integer.parseInt(params.get(0)) : COLS;
+        int rows = player != null ? player.getSimulation().getRows()
+                : params.size() >= 2 ? Integer.parseInt(params.get(1)) : ROWS;
+        int unitSize = params.size() >= 3 ? Integer.parseInt(params.get(2))
+                : Math.max(1, Math.min(UNIT_SIZE, 800 / Math.max(cols, rows)));
+        JFrame frame = new JFrame(player != null ? "Snake Replay" : "Snake Game");
+        SnakeGame game = player != null ? new SnakeGame(player, unitSize, useCanvas)
+                : new SnakeGame(cols, rows, unitSize, useCanvas);
+        game.autopilotEnabled = useAutopilot;
+        Runtime.getRuntime().addShutdownHook(new Thread(game::closeRecorder)); // 关窗口时也写完录像
+        frame.add(game);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+        if (game.renderer != null) {
+            game.renderer.requestFocusInWindow(); // 按键事件发给 Canvas
+        }
+    }
+}